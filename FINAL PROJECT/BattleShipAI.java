@@ -1,8 +1,10 @@
 package battleShip;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 import battleShip.BattleShipModel.gridState;
 
 /**
@@ -16,8 +18,81 @@ import battleShip.BattleShipModel.gridState;
  */
 public class BattleShipAI {
 	// Random object to randomize ai moves and reduce predictability
-	private Random random = new Random();
+	private final RandomGenerator random;
+	// Whether to print the reasoning behind each move
+	private boolean verbose = true;
+	// Hunt mode placement counts, carried from one move to the next
+	private final HeatMap heatMap = new HeatMap();
+	// Samples fleet layouts to choose each move, null to use the heuristic
+	private MonteCarloTargeting posterior;
+	// Whether the opponent is known to never place ships touching
+	private boolean opponentShipsApart;
+	// Placement product below which layouts are counted exactly, 0 for never
+	private long exactThreshold = FleetEnumerator.DEFAULT_THRESHOLD;
 
+	/**
+	 * Creates an ai with its own unseeded random source
+	 */
+	public BattleShipAI() {
+		this(new Random());
+	}
+
+	/**
+	 * Creates an ai that draws all of its random choices from the given
+	 * generator, so games can be reproduced from a seed
+	 * 
+	 * @param random generator for move and placement choices
+	 */
+	public BattleShipAI(RandomGenerator random) {
+		this.random = random;
+	}
+
+	/**
+	 * @param verbose whether to print the reasoning behind each move
+	 */
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Turns on posterior targeting, choosing every move from fleet layouts
+	 * sampled for up to the given time. The heuristic below is still used if no
+	 * layout is found in time.
+	 * 
+	 * @param budget sampling time allowed per move, or null for the heuristic
+	 *               alone
+	 */
+	public void setPosteriorBudget(Duration budget) {
+		posterior = (budget == null) ? null : new MonteCarloTargeting(budget);
+		if (posterior != null) {
+			posterior.setShipsApart(opponentShipsApart);
+		}
+	}
+
+	/**
+	 * Tells posterior targeting that the opponent never places ships touching,
+	 * as chooseShipPlacement does, so only such layouts are sampled
+	 * 
+	 * @param shipsApart whether the opponent keeps its ships apart
+	 */
+	public void setOpponentShipsApart(boolean shipsApart) {
+		opponentShipsApart = shipsApart;
+		if (posterior != null) {
+			posterior.setShipsApart(shipsApart);
+		}
+	}
+
+	/**
+	 * Sets when posterior targeting stops sampling and counts every layout of
+	 * the remaining fleet. Counting is exact but its cost grows with the number
+	 * of layouts, so it is used once the product of each ship's open placements
+	 * is at most the threshold, which usually means only a few ships are left.
+	 * 
+	 * @param threshold largest placement product to count, or 0 to never count
+	 */
+	public void setExactThreshold(long threshold) {
+		exactThreshold = threshold;
+	}
 
 	/**
 	 * picks an optimal valid firing coordinate based on the view of opponent’s
@@ -28,8 +103,31 @@ public class BattleShipAI {
 	 * @return [row, col] coordinates to fire at
 	 */
 	public int[] chooseMove(gridState[][] opponentView, List<Integer> remainingShipLengths) {
+		if (posterior != null) {
+			// once few layouts are left, count them all instead of sampling,
+			// sampling in whatever time is left if counting does not finish
+			long deadline = posterior.deadline();
+			long product = FleetEnumerator.placementProduct(opponentView, remainingShipLengths, opponentShipsApart,
+					exactThreshold);
+			if (product > 0 && product <= exactThreshold) {
+				long[] counts = new FleetEnumerator(opponentView, remainingShipLengths, opponentShipsApart)
+						.count(posterior.getPool(), deadline);
+				int[] move = (counts == null) ? null : MonteCarloTargeting.mostLikelyCell(opponentView, counts, random);
+				if (move != null) {
+					if (verbose)
+						System.out.println("AI: Exact Mode - Most Likely Ship Cell " + move[0] + "," + move[1] + " Counted Over Every Remaining Fleet Layout");
+					return move;
+				}
+			}
+
+			int[] move = posterior.chooseMove(opponentView, remainingShipLengths, random, deadline);
+			if (move != null) {
+				if (verbose)
+					System.out.println("AI: Posterior Mode - Most Likely Ship Cell " + move[0] + "," + move[1] + " Chosen From Sampled Fleets");
+				return move;
+			}
+		}
 		ArrayList<int[]> priority = new ArrayList<>();
-		int[][] heatMap = new int[10][10];
 
 		for (int i = 0; i < opponentView.length; i++) {
 			for (int j = 0; j < opponentView[i].length; j++) {
@@ -45,24 +143,32 @@ public class BattleShipAI {
 						while (right < 10 && opponentView[i][right] == gridState.Hit)
 							right++;
 						// Once it finds the end add to priority hit list
-						if (left >= 0 && opponentView[i][left] == gridState.Empty)
+						if (left >= 0 && opponentView[i][left] == gridState.Empty) {
 							priority.add(new int[] { i, left });
-							System.out.println("AI: Target Mode - Horizontal Hit Streak Detected - Adding " + i + "," + left + " to Priority Targets");
-						if (right < 10 && opponentView[i][right] == gridState.Empty)
+							if (verbose)
+								System.out.println("AI: Target Mode - Horizontal Hit Streak Detected - Adding " + i + "," + left + " to Priority Targets");
+						}
+						if (right < 10 && opponentView[i][right] == gridState.Empty) {
 							priority.add(new int[] { i, right });
-							System.out.println("AI: Target Mode - Horizontal Hit Streak Detected - Adding " + i + "," + right + " to Priority Targets");
+							if (verbose)
+								System.out.println("AI: Target Mode - Horizontal Hit Streak Detected - Adding " + i + "," + right + " to Priority Targets");
+						}
 
 						// If you get to the end of horizontal streak and there's a miss on both ends, ships are
 						// stacked
 						if ((left < 0 || opponentView[i][left] != gridState.Empty)
 								&& (right >= 10 || opponentView[i][right] != gridState.Empty)) {
 							for (int col = left + 1; col < right; col++) {
-								if (i - 1 >= 0 && opponentView[i - 1][col] == gridState.Empty)
+								if (i - 1 >= 0 && opponentView[i - 1][col] == gridState.Empty) {
 									priority.add(new int[] { i - 1, col });
-								System.out.println("AI: Target Mode - Vertical Ship Stack Detected - Backtracking, Adding " + (i - 1) + "," + col + " to Priority Targets");
-								if (i + 1 < 10 && opponentView[i + 1][col] == gridState.Empty)
+									if (verbose)
+										System.out.println("AI: Target Mode - Vertical Ship Stack Detected - Backtracking, Adding " + (i - 1) + "," + col + " to Priority Targets");
+								}
+								if (i + 1 < 10 && opponentView[i + 1][col] == gridState.Empty) {
 									priority.add(new int[] { i + 1, col });
-								System.out.println("AI: Target Mode - Vertical Ship Stack Detected - Backtracking, Adding " + (i + 1) + "," + col + " to Priority Targets");
+									if (verbose)
+										System.out.println("AI: Target Mode - Vertical Ship Stack Detected - Backtracking, Adding " + (i + 1) + "," + col + " to Priority Targets");
+								}
 							}
 						}
 
@@ -77,26 +183,32 @@ public class BattleShipAI {
 						while (down < 10 && opponentView[down][j] == gridState.Hit)
 							down++;
 						// Once it finds the end add to priority hit list
-						if (up >= 0 && opponentView[up][j] == gridState.Empty)
+						if (up >= 0 && opponentView[up][j] == gridState.Empty) {
 							priority.add(new int[] { up, j });
-							System.out.println("AI: Target Mode - Vertical Hit Streak Detected - Adding " + up + "," + j + " to Priority Targets");
-
-							
-						if (down < 10 && opponentView[down][j] == gridState.Empty)
+							if (verbose)
+								System.out.println("AI: Target Mode - Vertical Hit Streak Detected - Adding " + up + "," + j + " to Priority Targets");
+						}
+						if (down < 10 && opponentView[down][j] == gridState.Empty) {
 							priority.add(new int[] { down, j });
-							System.out.println("AI: Target Mode - Vertical Hit Streak Detected - Adding " + down + "," + j + " to Priority Targets");
+							if (verbose)
+								System.out.println("AI: Target Mode - Vertical Hit Streak Detected - Adding " + down + "," + j + " to Priority Targets");
+						}
 
 						// If you get to the end of vertical streak and there's a miss on both ends, ships are
 						// stacked
 						if ((up < 0 || opponentView[up][j] != gridState.Empty)
 								&& (down >= 10 || opponentView[down][j] != gridState.Empty)) {
 							for (int row = up + 1; row < down; row++) {
-								if (j - 1 >= 0 && opponentView[row][j - 1] == gridState.Empty)
-									System.out.println("AI: Target Mode - Horizontal Ship Stack Detected - Backtracking, Adding " + row + "," + (j-1) + " to Priority Targets");
+								if (j - 1 >= 0 && opponentView[row][j - 1] == gridState.Empty) {
 									priority.add(new int[] { row, j - 1 });
-								if (j + 1 < 10 && opponentView[row][j + 1] == gridState.Empty)
-									System.out.println("AI: Target Mode - Horizontal Ship Stack Detected - Backtracking, Adding " + row + "," + j+1 + " to Priority Targets");
+									if (verbose)
+										System.out.println("AI: Target Mode - Horizontal Ship Stack Detected - Backtracking, Adding " + row + "," + (j - 1) + " to Priority Targets");
+								}
+								if (j + 1 < 10 && opponentView[row][j + 1] == gridState.Empty) {
 									priority.add(new int[] { row, j + 1 });
+									if (verbose)
+										System.out.println("AI: Target Mode - Horizontal Ship Stack Detected - Backtracking, Adding " + row + "," + (j + 1) + " to Priority Targets");
+								}
 							}
 						}
 					}
@@ -104,19 +216,23 @@ public class BattleShipAI {
 					else {
 						if (i + 1 < 10 && opponentView[i + 1][j] == BattleShipModel.gridState.Empty) {
 							priority.add(new int[] { i + 1, j });
-							System.out.println("AI: Target Mode - Isolated Hit Detected - Adding " + i+1 + "," + j + " to Priority Targets");
+							if (verbose)
+								System.out.println("AI: Target Mode - Isolated Hit Detected - Adding " + (i + 1) + "," + j + " to Priority Targets");
 						}
 						if (j + 1 < 10 && opponentView[i][j + 1] == BattleShipModel.gridState.Empty) {
 							priority.add(new int[] { i, j + 1 });
-							System.out.println("AI: Target Mode - Isolated Hit Detected - Adding " + i + "," + j+1 + " to Priority Targets");
+							if (verbose)
+								System.out.println("AI: Target Mode - Isolated Hit Detected - Adding " + i + "," + (j + 1) + " to Priority Targets");
 						}
 						if (i - 1 > -1 && opponentView[i - 1][j] == BattleShipModel.gridState.Empty) {
 							priority.add(new int[] { i - 1, j });
-							System.out.println("AI: Target Mode - Isolated Hit Detected - Adding " + (i-1) + "," + j + " to Priority Targets");
+							if (verbose)
+								System.out.println("AI: Target Mode - Isolated Hit Detected - Adding " + (i - 1) + "," + j + " to Priority Targets");
 						}
 						if (j - 1 > -1 && opponentView[i][j - 1] == BattleShipModel.gridState.Empty) {
 							priority.add(new int[] { i, j - 1 });
-							System.out.println("AI: Target Mode - Isolated Hit Detected - Adding " + i + "," + (j-1) + " to Priority Targets");
+							if (verbose)
+								System.out.println("AI: Target Mode - Isolated Hit Detected - Adding " + i + "," + (j - 1) + " to Priority Targets");
 						}
 					}
 				}
@@ -127,43 +243,26 @@ public class BattleShipAI {
 			return priority.get(random.nextInt(priority.size()));
 		}
 
-		// If there's no hit visible, use expected value heat map
-		for (int shipLength : remainingShipLengths) {
-			// horizontal placements
-			for (int row = 0; row < 10; row++) {
-				for (int col = 0; col <= 10 - shipLength; col++) {
-					if (canPlaceShipAt(opponentView, row, col, 2, shipLength)) {
-						for (int i = 0; i < shipLength; i++) {
-							heatMap[row][col + i]++;
-						}
-					}
-				}
-			}
-			// vertical placements
-			for (int row = shipLength - 1; row < 10; row++) {
-				for (int col = 0; col < 10; col++) {
-					if (canPlaceShipAt(opponentView, row, col, 1, shipLength)) {
-						for (int i = 0; i < shipLength; i++) {
-							heatMap[row - i][col]++;
-						}
-					}
-				}
-			}
-		}
+		// If there's no hit visible, use expected value heat map, closing only the
+		// placements across cells fired at since the last move
+		heatMap.update(BitBoard.of(opponentView, gridState.Hit, gridState.Miss, gridState.Sunk),
+				remainingShipLengths);
 		// pick the coordinate with highest score
 		int maxScore = -1;
 		List<int[]> bestMoves = new ArrayList<>();
 		for (int i = 0; i < 10; i++) {
 			for (int j = 0; j < 10; j++) {
 				if (opponentView[i][j] == gridState.Empty) {
-					if (heatMap[i][j] > maxScore) {
+					if (heatMap.get(i, j) > maxScore) {
 						bestMoves.clear();
 						bestMoves.add(new int[] { i, j });
-						System.out.println("AI: Hunt Mode - New Highest Ship Probability Target Found, Clearing ALl Hunt Targets - Adding " + i + ","  + j + " to Hunt Targets");
-						maxScore = heatMap[i][j];
-					} else if (heatMap[i][j] == maxScore) {
+						if (verbose)
+							System.out.println("AI: Hunt Mode - New Highest Ship Probability Target Found, Clearing ALl Hunt Targets - Adding " + i + ","  + j + " to Hunt Targets");
+						maxScore = heatMap.get(i, j);
+					} else if (heatMap.get(i, j) == maxScore) {
 						bestMoves.add(new int[] { i, j });
-						System.out.println("AI: Hunt Mode - Highest Ship Probability Target Match Found - Adding " + i + ","  + j + " to Hunt Targets");
+						if (verbose)
+							System.out.println("AI: Hunt Mode - Highest Ship Probability Target Match Found - Adding " + i + ","  + j + " to Hunt Targets");
 
 					}
 				}
@@ -184,9 +283,9 @@ public class BattleShipAI {
 	 * @return coordinates of ship placement
 	 */
 	public int[] chooseShipPlacement(BattleShipModel.gridState[][] board, int shipLength) {
-		Random random = new Random();
 		int row, col, direction;
 		boolean valid;
+		BitBoard ships = BitBoard.of(board, gridState.Ship);
 
 		do {
 			direction = random.nextBoolean() ? 1 : 2; // 1 = vertical, 2 = horizontal
@@ -199,7 +298,7 @@ public class BattleShipAI {
 				col = random.nextInt(10 - shipLength + 1);
 			}
 
-			valid = canPlaceShipWithoutNeighbors(board, row, col, direction, shipLength);
+			valid = canPlaceShipWithoutNeighbors(ships, row, col, direction, shipLength);
 		} while (!valid);
 		return new int[] { row, col, direction };
 	}
@@ -207,81 +306,17 @@ public class BattleShipAI {
 	/**
 	 * determines if a ship placement has direct neighbors
 	 * 
-	 * @param board
-	 * @param startRow
-	 * @param startCol
-	 * @param direction
-	 * @param shipLength
-	 * @return if ship placement is already taken or has neighbors
-	 */
-	private boolean canPlaceShipWithoutNeighbors(gridState[][] board, int row, int col, int direction, int shipLength) {
-		// Vertical Ship Placement
-		if (direction == 1) {
-			if (row - shipLength + 1 < 0)
-				return false;
-			for (int j = -1; j <= 1; j++) {
-				for (int k = -1; k <= 1; k++) {
-					// Check 8 surrounding cells of each ship cell
-					for (int i = 0; i < shipLength; i++) {
-						if (row - i + j < 0 || col + k > 9 || row - i + j > 9 || col + k < 0) {
-							if (board[row - i][col] == gridState.Ship)
-								return false;
-						} else if (board[row - i + j][col + k] == gridState.Ship)
-							return false;
-
-					}
-				}
-			}
-		} else {
-			// Horizontal Ship Placement
-			if (col + shipLength > 10)
-				return false;
-			for (int j = -1; j <= 1; j++) {
-				for (int k = -1; k <= 1; k++) {
-					// Check 8 surrounding cells of each ship cell
-					for (int i = 0; i < shipLength; i++) {
-						if (row + j > 9 || row + j < 0 || col + i + k > 9 || col + i + k < 0) {
-							if (board[row][col + i] == gridState.Ship)
-								return false;
-						} else if (board[row + j][col + i + k] == gridState.Ship)
-							return false;
-					}
-				}
-			}
-		}
-		return true;
-	}
-
-	/**
-	 * determines if ship placement is valid, to determine how many valid ship
-	 * placements each cell has to create heat map
-	 * 
-	 * @param board
+	 * @param ships      cells already holding ships
 	 * @param row
 	 * @param col
 	 * @param direction
 	 * @param shipLength
-	 * @return If a ship can be placed here
+	 * @return if ship placement is already taken or has neighbors
 	 */
-	private boolean canPlaceShipAt(gridState[][] board, int row, int col, int direction, int shipLength) {
-		if (direction == 1) {
-			if (row - shipLength + 1 < 0)
-				return false;
-			for (int i = 0; i < shipLength; i++) {
-				gridState state = board[row - i][col];
-				if (state == gridState.Hit || state == gridState.Miss || state == gridState.Sunk)
-					return false;
-			}
-		} else {
-			if (col + shipLength > 10)
-				return false;
-			for (int i = 0; i < shipLength; i++) {
-				gridState state = board[row][col + i];
-				if (state == gridState.Hit || state == gridState.Miss || state == gridState.Sunk)
-					return false;
-			}
-		}
-		return true;
+	private boolean canPlaceShipWithoutNeighbors(BitBoard ships, int row, int col, int direction, int shipLength) {
+		// the ship's cells and the 8 surrounding cells of each must be free
+		BitBoard halo = BitBoard.halo(row, col, direction, shipLength);
+		return halo != null && !halo.intersects(ships);
 	}
 
-}
+}
\ No newline at end of file
@@ -43,12 +43,15 @@ public class BattleShipModel {
 		}
 	}
 
-	// For placing ships
-	private GridSpace[][] player1Board;
-	private GridSpace[][] player2Board;
-	// For playing the game
-	private GridSpace[][] player1View;
-	private GridSpace[][] player2View;
+	// For placing ships, each player's ship cells indexed by player
+	private BitBoard[] shipBoards;
+	// Id of the ship on each cell of each player's board, 0 for none
+	private int[][] shipIds;
+	// For playing the game, the shots each player has fired at the opponent
+	// indexed by the player firing; sunk cells are also hits
+	private BitBoard[] hitViews;
+	private BitBoard[] missViews;
+	private BitBoard[] sunkViews;
 	// Global game state variables
 	private int currentPlayer = 1;
 	private boolean placingShips = true;
@@ -76,36 +79,12 @@ public class BattleShipModel {
 	 * Initalizes both players exposed ship placing boards and hidden battle boards
 	 */
 	private void initializeBoards() {
-		// initialize player 1's internal board
-		player1Board = new GridSpace[10][10];
-		// initialize player 2's internal board
-		player2Board = new GridSpace[10][10];
-		// initialize player 1's visible view of opponent's board
-		player1View = new GridSpace[10][10];
-		// initialize player 2's visible view of opponent's board
-		player2View = new GridSpace[10][10];
-		// puts a gridspace object into every space for every board
-		for (int i = 0; i < 10; i++) {
-			for (int j = 0; j < 10; j++) {
-				player1Board[i][j] = new GridSpace();
-			}
-		}
-		for (int i = 0; i < 10; i++) {
-			for (int j = 0; j < 10; j++) {
-				player2Board[i][j] = new GridSpace();
-			}
-		}
-
-		for (int i = 0; i < 10; i++) {
-			for (int j = 0; j < 10; j++) {
-				player1View[i][j] = new GridSpace();
-			}
-		}
-		for (int i = 0; i < 10; i++) {
-			for (int j = 0; j < 10; j++) {
-				player2View[i][j] = new GridSpace();
-			}
-		}
+		// index 0 is unused so players index directly
+		shipBoards = new BitBoard[] { null, BitBoard.EMPTY, BitBoard.EMPTY };
+		shipIds = new int[3][BitBoard.CELLS];
+		hitViews = new BitBoard[] { null, BitBoard.EMPTY, BitBoard.EMPTY };
+		missViews = new BitBoard[] { null, BitBoard.EMPTY, BitBoard.EMPTY };
+		sunkViews = new BitBoard[] { null, BitBoard.EMPTY, BitBoard.EMPTY };
 	}
 
 	/**
@@ -116,16 +95,10 @@ public class BattleShipModel {
 	 * @param col
 	 */
 	public void cellClicked(int row, int col) {
-		if (currentPlayer == 1 && placingShips == true) {
-			handleShipPlacement(row, col, currentDirection, player1Board);
-		} else if (currentPlayer == 2 && placingShips == true) {
-			handleShipPlacement(row, col, currentDirection, player2Board);
-		} else if (currentPlayer == 1 && placingShips == false) {
-			handleFire(row, col, player1View, player2Board);
-		} else if (currentPlayer == 2 && placingShips == false) {
-			handleFire(row, col, player2View, player1Board);
+		if (placingShips == true) {
+			handleShipPlacement(row, col, currentDirection, currentPlayer);
 		} else {
-			// Do nothing
+			handleFire(row, col, currentPlayer);
 		}
 	}
 
@@ -136,16 +109,10 @@ public class BattleShipModel {
 	 *         during the battle phase
 	 */
 	public gridState getCoordState(Integer[] coords) {
-		if (currentPlayer == 1 && placingShips == true) {
-			return player1Board[coords[0]][coords[1]].getGridState();
-		} else if (currentPlayer == 2 && placingShips == true) {
-			return player2Board[coords[0]][coords[1]].getGridState();
-		} else if (currentPlayer == 1 && placingShips == false) {
-			return player1View[coords[0]][coords[1]].getGridState();
-		} else if (currentPlayer == 2 && placingShips == false) {
-			return player2View[coords[0]][coords[1]].getGridState();
+		if (placingShips == true) {
+			return boardState(currentPlayer, BitBoard.cell(coords[0], coords[1]));
 		} else {
-			return null;
+			return viewState(currentPlayer, BitBoard.cell(coords[0], coords[1]));
 		}
 	}
 
@@ -155,15 +122,43 @@ public class BattleShipModel {
 	 *         during the battle phase
 	 */
 	public gridState getYourCoordState(Integer[] coords) {
-		if (currentPlayer == 1) {
-			return player2View[coords[0]][coords[1]].getGridState();
-		} else if (currentPlayer == 2) {
-			return player1View[coords[0]][coords[1]].getGridState();
+		return viewState(opponentOf(currentPlayer), BitBoard.cell(coords[0], coords[1]));
+	}
+
+	/**
+	 * @param playerIndex
+	 * @param cell
+	 * @return the state of a cell of the player's own board
+	 */
+	private gridState boardState(int playerIndex, int cell) {
+		return shipBoards[playerIndex].get(cell) ? gridState.Ship : gridState.Empty;
+	}
+
+	/**
+	 * @param playerIndex
+	 * @param cell
+	 * @return the state of a cell of the player's view of the opponent's board
+	 */
+	private gridState viewState(int playerIndex, int cell) {
+		if (sunkViews[playerIndex].get(cell)) {
+			return gridState.Sunk;
+		} else if (hitViews[playerIndex].get(cell)) {
+			return gridState.Hit;
+		} else if (missViews[playerIndex].get(cell)) {
+			return gridState.Miss;
 		} else {
-			return null;
+			return gridState.Empty;
 		}
 	}
 
+	/**
+	 * @param playerIndex
+	 * @return the other player
+	 */
+	private static int opponentOf(int playerIndex) {
+		return (playerIndex == 1) ? 2 : 1;
+	}
+
 	/**
 	 * Handles ship placed action, checks if it was a valid placement, when last
 	 * ship of each player is placed it changes turn, and once player two finishes
@@ -172,10 +167,10 @@ public class BattleShipModel {
 	 * @param row
 	 * @param col
 	 * @param direction
-	 * @param board
+	 * @param playerIndex
 	 */
-	public void handleShipPlacement(int row, int col, int direction, GridSpace[][] board) {
-		if (tryPlaceShip(row, col, direction, board)) {
+	public void handleShipPlacement(int row, int col, int direction, int playerIndex) {
+		if (tryPlaceShip(row, col, direction, playerIndex)) {
 			currentShipIndex++;
 			pcs.firePropertyChange("placed", null, currentPlayer);
 		}
@@ -222,68 +217,48 @@ public class BattleShipModel {
 	 * 
 	 * @param row
 	 * @param col
-	 * @param view
-	 * @param board
+	 * @param playerIndex the player firing
 	 */
-	private void handleFire(int row, int col, GridSpace[][] view, GridSpace[][] board) {
-		switch (view[row][col].getGridState()) {
+	private void handleFire(int row, int col, int playerIndex) {
+		int cell = BitBoard.cell(row, col);
+		BitBoard shot = BitBoard.of(cell);
 		// prevent firing on already targeted cell
-		case Miss:
-			throw new IllegalArgumentException("You already fired here, try again!");
-		case Hit:
+		if (hitViews[playerIndex].intersects(shot) || missViews[playerIndex].intersects(shot)) {
 			throw new IllegalArgumentException("You already fired here, try again!");
-		default:
 		}
+		int opponent = opponentOf(playerIndex);
 		// Check if its a hit or miss
-		switch (board[row][col].getGridState()) {
-		// Hit
-		case Ship:
-			view[row][col].setGridState(gridState.Hit);
-			int shipId = board[row][col].getShipId();
-			Ship ship = ships.get(shipId);
+		if (shipBoards[opponent].intersects(shot)) {
+			// Hit
+			hitViews[playerIndex] = hitViews[playerIndex].or(shot);
+			Ship ship = ships.get(shipIds[opponent][cell]);
 			// update ship state and track sunk count
 			if (ship != null) {
 				ship.hitCount++;
 				if (ship.isSunk()) {
-					if (currentPlayer == 1) {
+					if (playerIndex == 1) {
 						player1ShipsSunk++;
 					} else {
 						player2ShipsSunk++;
 					}
 					// mark ship as sunk on the visible view
-					for (int i = 0; i < 10; i++) {
-						for (int j = 0; j < 10; j++) {
-							if (board[i][j].getShipId() == shipId) {
-								view[i][j].setGridState(gridState.Sunk);
-							}
-						}
-					}
+					sunkViews[playerIndex] = sunkViews[playerIndex].or(ship.cells);
 					checkGameOver();
 					if (isGameOver) {
 						return;
 					}
 					pcs.firePropertyChange("hit", null, currentPlayer);
 					pcs.firePropertyChange("shipSunk", null, currentPlayer);
-					break;
+				} else {
+					pcs.firePropertyChange("hit", null, currentPlayer);
 				}
+			} else {
+				pcs.firePropertyChange("hit", null, currentPlayer);
 			}
-			pcs.firePropertyChange("hit", null, currentPlayer);
-			break;
-		// Miss
-		case Empty:
-			view[row][col].setGridState(gridState.Miss);
-			checkGameOver();
-			if (isGameOver) {
-				return;
-			}
+		} else {
+			// Miss
+			missViews[playerIndex] = missViews[playerIndex].or(shot);
 			pcs.firePropertyChange("miss", null, currentPlayer);
-			break;
-		default:
-			break;
-		}
-		checkGameOver();
-		if (isGameOver) {
-			return;
 		}
 		pcs.firePropertyChange("fire", null, currentPlayer);
 	}
@@ -302,43 +277,28 @@ public class BattleShipModel {
 	 * @param row
 	 * @param col
 	 * @param direction
-	 * @param board
+	 * @param playerIndex
 	 * @return
 	 */
-	public boolean tryPlaceShip(int row, int col, int direction, GridSpace[][] board) {
+	public boolean tryPlaceShip(int row, int col, int direction, int playerIndex) {
 
 		int length = SHIP_SIZES[currentShipIndex];
+		BitBoard cells = BitBoard.ship(row, col, direction, length);
+		if (cells == null) {
+			throw new IllegalArgumentException("Ship Placed Outside Board, Try Again!");
+		}
+		if (cells.intersects(shipBoards[playerIndex])) {
+			throw new IllegalArgumentException("Already a Ship Here, Try Again!");
+		}
 		int shipId = nextShipId++;
-
-		switch (currentDirection) {
-		case 1:// validate vertical ship placement
-			if (row - length + 1 < 0) {
-				throw new IllegalArgumentException("Ship Placed Outside Board, Try Again!");
-			}
-			for (int i = 0; i < length; i++) {
-				if (board[row - i][col].getGridState() == gridState.Ship)
-					throw new IllegalArgumentException("Already a Ship Here, Try Again!");
-			}
-			for (int i = 0; i < length; i++) {
-				board[row - i][col].setGridState(gridState.Ship);
-				board[row - i][col].setShipId(shipId);
+		shipBoards[playerIndex] = shipBoards[playerIndex].or(cells);
+		for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+			if (cells.get(cell)) {
+				shipIds[playerIndex][cell] = shipId;
 			}
-			break;
-		case 2: // validate horizontal ship placement
-			if (col + length > 10)
-				throw new IllegalArgumentException("Ship Placed Outside Board, Try Again!");
-			for (int i = 0; i < length; i++) {
-				if (board[row][col + i].getGridState() == gridState.Ship)
-					throw new IllegalArgumentException("Already a Ship Here, Try Again!");
-			}
-			for (int i = 0; i < length; i++) {
-				board[row][col + i].setGridState(gridState.Ship);
-				board[row][col + i].setShipId(shipId);
-			}
-			break;
 		}
 		// add this ship to the map
-		ships.put(shipId, new Ship(shipId, length, currentPlayer));
+		ships.put(shipId, new Ship(shipId, length, playerIndex, cells));
 		return true;
 	}
 
@@ -431,12 +391,11 @@ public class BattleShipModel {
 	 * @return a read only view of the opponent of the AI's board for firing
 	 */
 	public gridState[][] getOpponentViewForAI(int aiPlayerIndex) {
-		GridSpace[][] view = (aiPlayerIndex == 1) ? player1View : player2View;
 		gridState[][] simplifiedView = new gridState[10][10];
 
 		for (int i = 0; i < 10; i++) {
 			for (int j = 0; j < 10; j++) {
-				simplifiedView[i][j] = view[i][j].getGridState();
+				simplifiedView[i][j] = viewState(aiPlayerIndex, BitBoard.cell(i, j));
 			}
 		}
 
@@ -448,34 +407,52 @@ public class BattleShipModel {
 	 * @return a read only view of the ai's own board for placing ships
 	 */
 	public gridState[][] getPlayerBoardState(int playerIndex) {
-		GridSpace[][] board = (playerIndex == 1) ? player1Board : player2Board;
 		gridState[][] simple = new gridState[10][10];
 		for (int i = 0; i < 10; i++) {
 			for (int j = 0; j < 10; j++) {
-				simple[i][j] = board[i][j].getGridState();
+				simple[i][j] = boardState(playerIndex, BitBoard.cell(i, j));
 			}
 		}
 		return simple;
 	}
 
+	/**
+	 * @param playerIndex
+	 * @return the cells of the player's own ships
+	 */
+	public BitBoard getShipMask(int playerIndex) {
+		return shipBoards[playerIndex];
+	}
+
+	/**
+	 * @param playerIndex the player firing
+	 * @return the cells the player has hit, including sunk ships
+	 */
+	public BitBoard getHitMask(int playerIndex) {
+		return hitViews[playerIndex];
+	}
+
+	/**
+	 * @param playerIndex the player firing
+	 * @return the cells the player has missed
+	 */
+	public BitBoard getMissMask(int playerIndex) {
+		return missViews[playerIndex];
+	}
+
+	/**
+	 * @param playerIndex the player firing
+	 * @return the cells of the opponent's ships the player has sunk
+	 */
+	public BitBoard getSunkMask(int playerIndex) {
+		return sunkViews[playerIndex];
+	}
+
 	/**
 	 * Counts number of sunk spaces for each player to check for a win (on 17)
 	 */
 	private void checkGameOver() {
-		int player1hits = 0;
-		int player2hits = 0;
-		for (int i = 0; i < 10; i++) {
-			for (int j = 0; j < 10; j++) {
-				if (player1View[i][j].getGridState() == gridState.Sunk) {
-					player1hits++;
-				}
-				if (player2View[i][j].getGridState() == gridState.Sunk) {
-					player2hits++;
-				}
-			}
-
-		}
-		if (player1hits >= 17 || player2hits >= 17) {
+		if (sunkViews[1].count() >= 17 || sunkViews[2].count() >= 17) {
 			isGameOver = true;
 			pcs.firePropertyChange("won", null, currentPlayer);
 		} else {
@@ -487,10 +464,18 @@ public class BattleShipModel {
 	 * @return player 1 unsunk ship lengths
 	 */
 	public List<Integer> getRemainingPlayer1ShipLengths() {
+		return getRemainingShipLengths(1);
+	}
+
+	/**
+	 * @param playerIndex
+	 * @return the given player's unsunk ship lengths
+	 */
+	public List<Integer> getRemainingShipLengths(int playerIndex) {
 		List<Integer> lengths = new ArrayList<>();
 		for (Ship ship : ships.values()) {
-			// only include ships that aren't sunk and belong to player 1
-			if (ship.playerOwner == 1 && !ship.isSunk()) {
+			// only include ships that aren't sunk and belong to the player
+			if (ship.playerOwner == playerIndex && !ship.isSunk()) {
 				lengths.add(ship.length);
 			}
 		}
@@ -504,60 +489,6 @@ public class BattleShipModel {
 		return new int[] { player1ShipsSunk, player2ShipsSunk };
 	}
 
-	/**
-	 * The gridspace class that fills each cell of each board for storing more
-	 * complex information in each cell like grid state
-	 */
-	private class GridSpace {
-
-		// ------------------------Attributes-----------------------
-		// holds the current state
-		private gridState curState;
-		private int shipId = 0;
-
-		// --------------------------Setters--------------------------
-
-		/**
-		 * @param newGridState The new state of the gridSpace, must be non-null
-		 */
-		public void setGridState(gridState newGridState) throws IllegalArgumentException {
-			if (newGridState == null) {
-				throw new IllegalArgumentException("Grid State can not be null");
-			}
-			curState = newGridState;
-		}// setGridState
-
-		/**
-		 * @param id
-		 */
-		public void setShipId(int id) {
-			this.shipId = id;
-		} // setShipID
-
-		// --------------------------Getters--------------------------
-		/**
-		 * @return the current Grid State
-		 */
-		public gridState getGridState() {
-			return curState;
-		}// getGridState
-
-		/**
-		 * @return ship Id
-		 */
-		public int getShipId() {
-			return shipId;
-		} // getShipID
-
-		// --------------------------Functions-------------------------
-		/**
-		 * Creates a gridSpace object, sets it to empty by default
-		 */
-		public GridSpace() {
-			curState = gridState.Empty;
-		}
-	}// GridSpace
-
 	/**
 	 * 
 	 */
@@ -566,11 +497,13 @@ public class BattleShipModel {
 		int length;
 		int hitCount = 0;
 		int playerOwner;
+		BitBoard cells;
 
-		Ship(int id, int length, int playerOwner) {
+		Ship(int id, int length, int playerOwner, BitBoard cells) {
 			this.id = id;
 			this.length = length;
 			this.playerOwner = playerOwner;
+			this.cells = cells;
 		}
 
 		boolean isSunk() {
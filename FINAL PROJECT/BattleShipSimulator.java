@@ -0,0 +1,345 @@
+package battleShip;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class plays ai versus ai games of battleship with no user interface and
+ * no delays, so the strength of the ai can be measured over a large number of
+ * games. Games are split across a fixed thread pool, each worker drawing its
+ * random choices from its own SplittableRandom split off a single seed, so a
+ * run can be repeated exactly with the same seed and thread count. The two ai
+ * players take turns going first, since the side that fires first has an
+ * edge, and wins are reported both per player and per seat.
+ *
+ * @author Matthew Washburn, Peyton Baker
+ * @version Spring 2025
+ *
+ */
+public class BattleShipSimulator {
+	// Number of worker threads games are split across
+	private final int threads;
+	// Seed every worker's random source is split from
+	private final long seed;
+	// Posterior sampling time per move for player 1, null for the heuristic
+	private Duration player1Budget;
+
+	/**
+	 * Creates a simulator
+	 *
+	 * @param threads number of worker threads, at least 1
+	 * @param seed    seed for all random choices of the run
+	 */
+	public BattleShipSimulator(int threads, long seed) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Need at least one thread");
+		}
+		this.threads = threads;
+		this.seed = seed;
+	}
+
+	/**
+	 * Has player 1 choose its moves by posterior sampling, so it can be measured
+	 * against the heuristic player 2
+	 *
+	 * @param budget sampling time per move, or null for the heuristic
+	 */
+	public void setPlayer1PosteriorBudget(Duration budget) {
+		player1Budget = budget;
+	}
+
+	/**
+	 * Plays the given number of games, splitting them evenly across the workers
+	 *
+	 * @param games number of games to play
+	 * @return the combined statistics of every game
+	 */
+	public Stats run(int games) {
+		SplittableRandom root = new SplittableRandom(seed);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		try {
+			List<Future<Stats>> workers = new ArrayList<>();
+			int first = 0;
+			for (int t = 0; t < threads; t++) {
+				// split on this thread so each worker's source depends only on the seed
+				SplittableRandom random = root.split();
+				int share = games / threads + (t < games % threads ? 1 : 0);
+				int firstGame = first;
+				workers.add(pool.submit(() -> playGames(firstGame, share, random, player1Budget)));
+				first += share;
+			}
+			Stats total = new Stats();
+			for (Future<Stats> worker : workers) {
+				total.add(worker.get());
+			}
+			total.elapsedNanos = System.nanoTime() - start;
+			return total;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Simulation interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Simulated game failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Plays games one after another on the calling thread. Player 1 goes first
+	 * in even numbered games and player 2 in odd ones, numbering across the
+	 * whole run so the split stays even however the games are shared out.
+	 *
+	 * @param firstGame run-wide number of the first of these games
+	 * @param games  number of games to play
+	 * @param random source for both ai players, split once per player
+	 * @param player1Budget posterior sampling time per move for player 1, or null
+	 * @return statistics of these games
+	 */
+	private static Stats playGames(int firstGame, int games, SplittableRandom random, Duration player1Budget) {
+		BattleShipAI player1 = new BattleShipAI(random.split());
+		BattleShipAI player2 = new BattleShipAI(random.split());
+		player1.setPosteriorBudget(player1Budget);
+		// player 2 places its ships with chooseShipPlacement, which keeps them apart
+		player1.setOpponentShipsApart(true);
+		player1.setVerbose(false);
+		player2.setVerbose(false);
+		Stats stats = new Stats();
+		for (int game = firstGame; game < firstGame + games; game++) {
+			boolean player1First = game % 2 == 0;
+			int[] result = player1First ? playGame(player1, player2) : playGame(player2, player1);
+			// result[0] is the winner's seat, 1 if it fired first
+			int winner = player1First ? result[0] : 3 - result[0];
+			stats.record(winner, result[0], result[1]);
+		}
+		return stats;
+	}
+
+	/**
+	 * Plays one complete game, player 1 placing first and firing first
+	 *
+	 * @param player1 ai for player 1, which goes first
+	 * @param player2 ai for player 2
+	 * @return the winning player and the number of shots the winner fired
+	 */
+	public static int[] playGame(BattleShipAI player1, BattleShipAI player2) {
+		BattleShipModel model = new BattleShipModel();
+		// pass the turn on a miss, as the view does between two people
+		model.addPropertyChangeListener(e -> {
+			if (e.getPropertyName().equals("miss")) {
+				model.nextTurn();
+			}
+		});
+		placeFleet(model, player1);
+		placeFleet(model, player2);
+
+		int[] shots = new int[3];
+		while (!model.isGameOver()) {
+			int player = model.getCurrentPlayer();
+			BattleShipAI ai = (player == 1) ? player1 : player2;
+			int[] move = ai.chooseMove(model.getOpponentViewForAI(player),
+					model.getRemainingShipLengths(3 - player));
+			if (move == null) {
+				throw new IllegalStateException("Player " + player + " has nowhere left to fire");
+			}
+			shots[player]++;
+			model.cellClicked(move[0], move[1]);
+		}
+		int winner = model.getCurrentPlayer();
+		return new int[] { winner, shots[winner] };
+	}
+
+	/**
+	 * Places every ship of the player whose turn it is to place
+	 *
+	 * @param model the game being set up
+	 * @param ai    the ai choosing the placements
+	 */
+	private static void placeFleet(BattleShipModel model, BattleShipAI ai) {
+		int player = model.getCurrentPlayer();
+		while (model.areShipsPlacing() && model.getCurrentPlayer() == player && model.getCurrentShipLength() > 0) {
+			int[] placement = ai.chooseShipPlacement(model.getPlayerBoardState(player),
+					model.getCurrentShipLength());
+			if (placement[2] != model.getShipDirection()) {
+				model.rotateShipDirection();
+			}
+			model.cellClicked(placement[0], placement[1]);
+		}
+	}
+
+	/**
+	 * Runs a simulation from the command line and prints its statistics
+	 *
+	 * @param args number of games, number of threads, seed and milliseconds of
+	 *             posterior sampling per move for player 1, all optional
+	 */
+	public static void main(String[] args) {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+		long budgetMillis = args.length > 3 ? Long.parseLong(args[3]) : 0;
+		System.out.println("Playing " + games + " games on " + threads + " threads, seed " + seed);
+		BattleShipSimulator simulator = new BattleShipSimulator(threads, seed);
+		if (budgetMillis > 0) {
+			System.out.println("Player 1 samples fleets for " + budgetMillis + " ms per move");
+			simulator.setPlayer1PosteriorBudget(Duration.ofMillis(budgetMillis));
+		}
+		System.out.println(simulator.run(games));
+	}
+
+	/**
+	 * Aggregate results of a run: wins per player and per seat, the
+	 * distribution of shots the winner needed, and the time taken
+	 */
+	public static class Stats {
+		// Most shots a game can take, one per cell
+		private static final int MAX_SHOTS = 100;
+
+		private long games;
+		private final long[] wins = new long[3];
+		// Wins by seat, 1 for the player that fired first
+		private final long[] seatWins = new long[3];
+		private final long[] shotsToWin = new long[MAX_SHOTS + 1];
+		private long elapsedNanos;
+
+		/**
+		 * @param winner the winning player
+		 * @param seat   the winner's seat, 1 if it fired first
+		 * @param shots  number of shots the winner fired
+		 */
+		void record(int winner, int seat, int shots) {
+			games++;
+			wins[winner]++;
+			seatWins[seat]++;
+			shotsToWin[shots]++;
+		}
+
+		/**
+		 * @param other statistics to merge into these
+		 */
+		void add(Stats other) {
+			games += other.games;
+			for (int i = 0; i < wins.length; i++) {
+				wins[i] += other.wins[i];
+				seatWins[i] += other.seatWins[i];
+			}
+			for (int i = 0; i < shotsToWin.length; i++) {
+				shotsToWin[i] += other.shotsToWin[i];
+			}
+		}
+
+		/**
+		 * @return number of games played
+		 */
+		public long getGames() {
+			return games;
+		}
+
+		/**
+		 * @param playerIndex
+		 * @return number of games the player won
+		 */
+		public long getWins(int playerIndex) {
+			return wins[playerIndex];
+		}
+
+		/**
+		 * @param playerIndex
+		 * @return fraction of games the player won
+		 */
+		public double getWinRate(int playerIndex) {
+			return games == 0 ? 0 : (double) wins[playerIndex] / games;
+		}
+
+		/**
+		 * @param seat 1 for the player that fired first, 2 for the other
+		 * @return fraction of games won from that seat
+		 */
+		public double getSeatWinRate(int seat) {
+			return games == 0 ? 0 : (double) seatWins[seat] / games;
+		}
+
+		/**
+		 * @return number of games won in each number of shots, indexed by shots
+		 */
+		public long[] getShotsToWin() {
+			return shotsToWin.clone();
+		}
+
+		/**
+		 * @return average number of shots the winner fired
+		 */
+		public double getMeanShotsToWin() {
+			long total = 0;
+			for (int shots = 0; shots < shotsToWin.length; shots++) {
+				total += shots * shotsToWin[shots];
+			}
+			return games == 0 ? 0 : (double) total / games;
+		}
+
+		/**
+		 * @param fraction between 0 and 1, 0.5 for the median
+		 * @return fewest shots that at least that fraction of games were won in
+		 */
+		public int getShotsToWinPercentile(double fraction) {
+			long needed = (long) Math.ceil(fraction * games);
+			long seen = 0;
+			for (int shots = 0; shots < shotsToWin.length; shots++) {
+				seen += shotsToWin[shots];
+				if (seen >= needed && seen > 0) {
+					return shots;
+				}
+			}
+			return 0;
+		}
+
+		/**
+		 * @return nanoseconds the run took
+		 */
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		/**
+		 * @return games finished per second of the run
+		 */
+		public double getGamesPerSecond() {
+			return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+		}
+
+		/**
+		 * @return a report of win rates, throughput and the shots to win
+		 *         distribution
+		 */
+		@Override
+		public String toString() {
+			StringBuilder report = new StringBuilder();
+			report.append(String.format("Games: %d in %.2f s (%.0f games/s)%n", games, elapsedNanos / 1e9,
+					getGamesPerSecond()));
+			report.append(String.format("Player 1 wins: %.2f%%  Player 2 wins: %.2f%%%n", 100 * getWinRate(1),
+					100 * getWinRate(2)));
+			report.append(String.format("First to fire wins: %.2f%%  Second to fire wins: %.2f%%%n",
+					100 * getSeatWinRate(1), 100 * getSeatWinRate(2)));
+			report.append(String.format("Shots to win: mean %.2f, min %d, p10 %d, median %d, p90 %d, max %d%n",
+					getMeanShotsToWin(), getShotsToWinPercentile(0), getShotsToWinPercentile(0.1),
+					getShotsToWinPercentile(0.5), getShotsToWinPercentile(0.9), getShotsToWinPercentile(1)));
+			long peak = 1;
+			for (long count : shotsToWin) {
+				peak = Math.max(peak, count);
+			}
+			for (int shots = 0; shots < shotsToWin.length; shots++) {
+				if (shotsToWin[shots] > 0) {
+					report.append(String.format("%3d %8d %s%n", shots, shotsToWin[shots],
+							"#".repeat((int) (50 * shotsToWin[shots] / peak))));
+				}
+			}
+			return report.toString();
+		}
+	}
+}
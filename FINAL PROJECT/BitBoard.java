@@ -0,0 +1,279 @@
+package battleShip;
+
+import battleShip.BattleShipModel.gridState;
+
+/**
+ * An immutable set of cells on a 10x10 battleship board stored as a 128 bit
+ * mask in two longs, cell (row, col) being bit row * 10 + col. Boards in the
+ * model are kept as one mask per kind of cell (ships, hits, misses, sunk) so
+ * that placement checks, adjacency checks and win checks are a few AND and OR
+ * operations instead of loops over grid spaces. The mask of every ship
+ * placement and of the cells around it is computed once and shared.
+ *
+ * @author Matthew Washburn, Peyton Baker
+ * @version Spring 2025
+ *
+ */
+public final class BitBoard {
+	// Width and height of the board
+	public static final int SIZE = 10;
+	// Number of cells on the board
+	public static final int CELLS = SIZE * SIZE;
+	// The board with no cells set
+	public static final BitBoard EMPTY = new BitBoard(0, 0);
+	// Every cell of the board
+	public static final BitBoard FULL = new BitBoard(-1L, (1L << (CELLS - 64)) - 1);
+
+	// Placements and their surroundings, indexed [direction][length][cell], null
+	// where the ship would leave the board
+	private static final BitBoard[][][] SHIPS = new BitBoard[3][SIZE + 1][];
+	private static final BitBoard[][][] HALOS = new BitBoard[3][SIZE + 1][];
+
+	static {
+		for (int direction = 1; direction <= 2; direction++) {
+			for (int length = 1; length <= SIZE; length++) {
+				SHIPS[direction][length] = new BitBoard[CELLS];
+				HALOS[direction][length] = new BitBoard[CELLS];
+				for (int row = 0; row < SIZE; row++) {
+					for (int col = 0; col < SIZE; col++) {
+						buildPlacement(direction, length, row, col);
+					}
+				}
+			}
+		}
+	}
+
+	// Cells 0 to 63
+	private final long low;
+	// Cells 64 to 99 in the low bits
+	private final long high;
+
+	private BitBoard(long low, long high) {
+		this.low = low;
+		this.high = high;
+	}
+
+	/**
+	 * @param row
+	 * @param col
+	 * @return the bit index of a cell
+	 */
+	public static int cell(int row, int col) {
+		return row * SIZE + col;
+	}
+
+	/**
+	 * @param cell bit index of a cell
+	 * @return a board with only that cell set
+	 */
+	public static BitBoard of(int cell) {
+		return cell < 64 ? new BitBoard(1L << cell, 0) : new BitBoard(0, 1L << (cell - 64));
+	}
+
+	/**
+	 * @param cells  a grid of cell states
+	 * @param states the states to collect
+	 * @return a board of the cells that are in any of the given states
+	 */
+	public static BitBoard of(gridState[][] cells, gridState... states) {
+		long low = 0;
+		long high = 0;
+		for (int row = 0; row < SIZE; row++) {
+			for (int col = 0; col < SIZE; col++) {
+				for (gridState state : states) {
+					if (cells[row][col] == state) {
+						int cell = cell(row, col);
+						if (cell < 64) {
+							low |= 1L << cell;
+						} else {
+							high |= 1L << (cell - 64);
+						}
+						break;
+					}
+				}
+			}
+		}
+		return new BitBoard(low, high);
+	}
+
+	/**
+	 * The cells a ship covers, using the model's placement convention
+	 *
+	 * @param row       row of the ship's anchor cell
+	 * @param col       column of the ship's anchor cell
+	 * @param direction 1 for vertical, extending up from the anchor, 2 for
+	 *                  horizontal, extending right
+	 * @param length    length of the ship
+	 * @return the ship's cells, or null if it would leave the board
+	 */
+	public static BitBoard ship(int row, int col, int direction, int length) {
+		return SHIPS[direction][length][cell(row, col)];
+	}
+
+	/**
+	 * The cells a ship covers and the eight cells around each of them
+	 *
+	 * @param row       row of the ship's anchor cell
+	 * @param col       column of the ship's anchor cell
+	 * @param direction 1 for vertical, 2 for horizontal
+	 * @param length    length of the ship
+	 * @return the ship's cells and their neighbours on the board, or null if the
+	 *         ship would leave the board
+	 */
+	public static BitBoard halo(int row, int col, int direction, int length) {
+		return HALOS[direction][length][cell(row, col)];
+	}
+
+	/**
+	 * Fills the placement tables for one anchor cell
+	 */
+	private static void buildPlacement(int direction, int length, int row, int col) {
+		int endRow = (direction == 1) ? row - length + 1 : row;
+		int endCol = (direction == 1) ? col : col + length - 1;
+		if (endRow < 0 || endCol >= SIZE) {
+			return;
+		}
+		BitBoard ship = EMPTY;
+		BitBoard halo = EMPTY;
+		for (int i = endRow; i <= row; i++) {
+			for (int j = col; j <= endCol; j++) {
+				ship = ship.with(i, j);
+				for (int di = -1; di <= 1; di++) {
+					for (int dj = -1; dj <= 1; dj++) {
+						if (i + di >= 0 && i + di < SIZE && j + dj >= 0 && j + dj < SIZE) {
+							halo = halo.with(i + di, j + dj);
+						}
+					}
+				}
+			}
+		}
+		SHIPS[direction][length][cell(row, col)] = ship;
+		HALOS[direction][length][cell(row, col)] = halo;
+	}
+
+	/**
+	 * @return cells 0 to 63
+	 */
+	long low() {
+		return low;
+	}
+
+	/**
+	 * @return cells 64 to 99, in the low bits
+	 */
+	long high() {
+		return high;
+	}
+
+	/**
+	 * @param row
+	 * @param col
+	 * @return whether the cell is set
+	 */
+	public boolean get(int row, int col) {
+		return get(cell(row, col));
+	}
+
+	/**
+	 * @param cell bit index of the cell
+	 * @return whether the cell is set
+	 */
+	public boolean get(int cell) {
+		return cell < 64 ? (low >>> cell & 1) != 0 : (high >>> (cell - 64) & 1) != 0;
+	}
+
+	/**
+	 * @param row
+	 * @param col
+	 * @return this board with the cell also set
+	 */
+	public BitBoard with(int row, int col) {
+		return or(of(cell(row, col)));
+	}
+
+	/**
+	 * @param other
+	 * @return cells set in either board
+	 */
+	public BitBoard or(BitBoard other) {
+		return new BitBoard(low | other.low, high | other.high);
+	}
+
+	/**
+	 * @param other
+	 * @return cells set in both boards
+	 */
+	public BitBoard and(BitBoard other) {
+		return new BitBoard(low & other.low, high & other.high);
+	}
+
+	/**
+	 * @param other
+	 * @return cells set in this board but not the other
+	 */
+	public BitBoard andNot(BitBoard other) {
+		return new BitBoard(low & ~other.low, high & ~other.high);
+	}
+
+	/**
+	 * @param other
+	 * @return whether any cell is set in both boards
+	 */
+	public boolean intersects(BitBoard other) {
+		return (low & other.low) != 0 || (high & other.high) != 0;
+	}
+
+	/**
+	 * @param other
+	 * @return whether every cell of the other board is set in this one
+	 */
+	public boolean contains(BitBoard other) {
+		return (other.low & ~low) == 0 && (other.high & ~high) == 0;
+	}
+
+	/**
+	 * @return whether no cell is set
+	 */
+	public boolean isEmpty() {
+		return (low | high) == 0;
+	}
+
+	/**
+	 * @return number of cells set
+	 */
+	public int count() {
+		return Long.bitCount(low) + Long.bitCount(high);
+	}
+
+	/**
+	 * @return the lowest set cell, or -1 if none is set
+	 */
+	public int first() {
+		if (low != 0) {
+			return Long.numberOfTrailingZeros(low);
+		}
+		return high != 0 ? 64 + Long.numberOfTrailingZeros(high) : -1;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof BitBoard && ((BitBoard) other).low == low && ((BitBoard) other).high == high;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(low * 31 + high);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		for (int row = 0; row < SIZE; row++) {
+			for (int col = 0; col < SIZE; col++) {
+				text.append(get(row, col) ? 'X' : '.');
+			}
+			text.append('\n');
+		}
+		return text.toString();
+	}
+}
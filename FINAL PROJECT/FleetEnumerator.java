@@ -0,0 +1,276 @@
+package battleShip;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import battleShip.BattleShipModel.gridState;
+
+/**
+ * Counts every layout of the remaining fleet consistent with the ai's view,
+ * and how many of them cover each cell, giving exact probabilities where
+ * MonteCarloTargeting only estimates them. Ships are placed largest first
+ * from their lists of open placements. The number of ways to finish a layout
+ * depends only on which ships are left, which cells are closed to them and
+ * which hits are already covered, so those counts are memoized and shared
+ * between every partial layout that reaches the same sub-board. Unless the
+ * fleet is small, the first ship's placements are counted in parallel on a
+ * fork-join pool.
+ *
+ * Counting is only fast once few layouts remain, which is what
+ * placementProduct is for: the ai counts exactly once the product of the
+ * ships' open placements falls below a threshold. Counting still stops at the
+ * move's deadline, so the ai can fall back to sampling in the time left.
+ *
+ * @author Matthew Washburn, Peyton Baker
+ * @version Spring 2025
+ *
+ */
+public class FleetEnumerator {
+	// Placement product below which the ai counts exactly by default
+	public static final long DEFAULT_THRESHOLD = 250_000;
+	// Placement product below which counting on the calling thread is quicker
+	// than handing the first ship's placements to the pool
+	private static final long PARALLEL_THRESHOLD = 20_000;
+
+	// Sub-board with no way to finish the layout
+	private static final Counts NONE = new Counts(0, null);
+	// Every ship placed and every hit covered, one way with no further cells
+	private static final Counts DONE = new Counts(1, null);
+
+	// Open placements of each ship, largest ship first
+	private final FleetLayouts layouts;
+	// Cells of all ships from each index to the last, to rule out sub-boards
+	// with more uncovered hits than the ships left can cover
+	private final int[] cellsFrom;
+	// Ways to finish a layout from each sub-board already counted
+	private final Map<SubBoard, Counts> memo = new ConcurrentHashMap<>();
+	// System.nanoTime at which counting gives up
+	private long deadline;
+	// Set once the deadline passes, so every task stops counting
+	private volatile boolean outOfTime;
+
+	/**
+	 * @param opponentView         the ai's view of the opponent's board
+	 * @param remainingShipLengths lengths of the ships not yet sunk
+	 * @param shipsApart           whether no two ships may touch, even
+	 *                             diagonally
+	 */
+	public FleetEnumerator(gridState[][] opponentView, List<Integer> remainingShipLengths, boolean shipsApart) {
+		List<Integer> largestFirst = new ArrayList<>(remainingShipLengths);
+		largestFirst.sort(Comparator.reverseOrder());
+		layouts = new FleetLayouts(opponentView, largestFirst, shipsApart);
+		cellsFrom = new int[largestFirst.size() + 1];
+		for (int ship = largestFirst.size() - 1; ship >= 0; ship--) {
+			cellsFrom[ship] = cellsFrom[ship + 1] + largestFirst.get(ship);
+		}
+	}
+
+	/**
+	 * Bounds the number of layouts cheaply, to decide whether to count them
+	 *
+	 * @param opponentView         the ai's view of the opponent's board
+	 * @param remainingShipLengths lengths of the ships not yet sunk
+	 * @param shipsApart           whether no two ships may touch
+	 * @param cap                  value to stop counting at
+	 * @return the product of the numbers of open placements of each ship, or
+	 *         cap + 1 once the product passes cap
+	 */
+	public static long placementProduct(gridState[][] opponentView, List<Integer> remainingShipLengths,
+			boolean shipsApart, long cap) {
+		return FleetLayouts.placementProduct(opponentView, remainingShipLengths, shipsApart, cap);
+	}
+
+	/**
+	 * Counts every consistent layout
+	 *
+	 * @param pool     pool to count the first ship's placements on
+	 * @param deadline System.nanoTime at which to give up
+	 * @return how many layouts cover each cell, indexed by cell, or null if there
+	 *         is no consistent layout or counting ran past the deadline
+	 */
+	public long[] count(ForkJoinPool pool, long deadline) {
+		if (layouts.lengths.length == 0) {
+			return null;
+		}
+		this.deadline = deadline;
+		long product = 1;
+		for (long[] placements : layouts.lows) {
+			product = Math.min(product * placements.length, PARALLEL_THRESHOLD);
+		}
+		if (product < PARALLEL_THRESHOLD) {
+			Counts all = count(0, 0, 0, 0, 0);
+			return (outOfTime || all.layouts == 0) ? null : all.cells;
+		}
+		long[] firstLows = layouts.lows[0];
+		long[] firstHighs = layouts.highs[0];
+		List<ForkJoinTask<Counts>> tasks = new ArrayList<>();
+		for (int i = 0; i < firstLows.length; i++) {
+			int placement = i;
+			tasks.add(pool.submit(() -> count(1, firstLows[placement], firstHighs[placement],
+					layouts.haloLows[0][placement], layouts.haloHighs[0][placement])));
+		}
+		long layoutCount = 0;
+		long[] cells = new long[BitBoard.CELLS];
+		for (int i = 0; i < tasks.size(); i++) {
+			if (outOfTime) {
+				// drop the tasks not yet started rather than wait for each to give up
+				for (ForkJoinTask<Counts> task : tasks) {
+					task.cancel(false);
+				}
+				return null;
+			}
+			Counts rest = tasks.get(i).join();
+			layoutCount += rest.layouts;
+			add(cells, rest, firstLows[i], firstHighs[i]);
+		}
+		return (outOfTime || layoutCount == 0) ? null : cells;
+	}
+
+	/**
+	 * Counts the ways to place the remaining ships on a sub-board
+	 *
+	 * @param ship       index of the next ship to place
+	 * @param low        cells 0 to 63 covered by the ships placed so far
+	 * @param high       cells 64 to 99 covered by the ships placed so far
+	 * @param closedLow  cells 0 to 63 closed to the remaining ships
+	 * @param closedHigh cells 64 to 99 closed to the remaining ships
+	 * @return the number of ways and how many of them cover each cell, or none
+	 *         once the deadline has passed
+	 */
+	private Counts count(int ship, long low, long high, long closedLow, long closedHigh) {
+		long openLow = layouts.hitsLow & ~low;
+		long openHigh = layouts.hitsHigh & ~high;
+		if (ship == layouts.lengths.length) {
+			return (openLow | openHigh) == 0 ? DONE : NONE;
+		}
+		if (Long.bitCount(openLow) + Long.bitCount(openHigh) > cellsFrom[ship]) {
+			return NONE;
+		}
+		SubBoard key = new SubBoard(ship, closedLow, closedHigh, layouts.hitsLow & low, layouts.hitsHigh & high);
+		Counts known = memo.get(key);
+		if (known != null) {
+			return known;
+		}
+		if (outOfTime || System.nanoTime() - deadline > 0) {
+			outOfTime = true;
+			return NONE;
+		}
+		long[] lows = layouts.lows[ship];
+		long[] highs = layouts.highs[ship];
+		long layoutCount = 0;
+		long[] cells = new long[BitBoard.CELLS];
+		boolean last = ship == layouts.lengths.length - 1;
+		for (int i = 0; i < lows.length; i++) {
+			if (outOfTime) {
+				// a child gave up part way, so this count is incomplete
+				return NONE;
+			}
+			if ((lows[i] & closedLow) != 0 || (highs[i] & closedHigh) != 0) {
+				continue;
+			}
+			if (last) {
+				// the last ship finishes the layout if it covers every open hit
+				if ((openLow & ~lows[i]) == 0 && (openHigh & ~highs[i]) == 0) {
+					layoutCount++;
+					add(cells, DONE, lows[i], highs[i]);
+				}
+				continue;
+			}
+			Counts rest = count(ship + 1, low | lows[i], high | highs[i], closedLow | layouts.haloLows[ship][i],
+					closedHigh | layouts.haloHighs[ship][i]);
+			layoutCount += rest.layouts;
+			add(cells, rest, lows[i], highs[i]);
+		}
+		if (outOfTime) {
+			return NONE;
+		}
+		Counts counts = layoutCount == 0 ? NONE : new Counts(layoutCount, cells);
+		// two tasks may count the same sub-board; either result is the same
+		memo.put(key, counts);
+		return counts;
+	}
+
+	/**
+	 * Adds the cells covered by a placement and the layouts that finish it
+	 *
+	 * @param cells the running cover counts
+	 * @param rest  the ways to finish the layout after the placement
+	 * @param low   cells 0 to 63 of the placement
+	 * @param high  cells 64 to 99 of the placement
+	 */
+	private static void add(long[] cells, Counts rest, long low, long high) {
+		if (rest.layouts == 0) {
+			return;
+		}
+		if (rest.cells != null) {
+			for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+				cells[cell] += rest.cells[cell];
+			}
+		}
+		for (; low != 0; low &= low - 1) {
+			cells[Long.numberOfTrailingZeros(low)] += rest.layouts;
+		}
+		for (; high != 0; high &= high - 1) {
+			cells[64 + Long.numberOfTrailingZeros(high)] += rest.layouts;
+		}
+	}
+
+	/**
+	 * The ways to finish a layout from a sub-board
+	 */
+	private static class Counts {
+		// Number of ways
+		final long layouts;
+		// How many of them cover each cell, null if none do
+		final long[] cells;
+
+		Counts(long layouts, long[] cells) {
+			this.layouts = layouts;
+			this.cells = cells;
+		}
+	}
+
+	/**
+	 * What decides the ways to finish a layout: the ships left, the cells closed
+	 * to them and the hits already covered
+	 */
+	private static class SubBoard {
+		final int ship;
+		final long closedLow;
+		final long closedHigh;
+		final long coveredLow;
+		final long coveredHigh;
+
+		SubBoard(int ship, long closedLow, long closedHigh, long coveredLow, long coveredHigh) {
+			this.ship = ship;
+			this.closedLow = closedLow;
+			this.closedHigh = closedHigh;
+			this.coveredLow = coveredLow;
+			this.coveredHigh = coveredHigh;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof SubBoard)) {
+				return false;
+			}
+			SubBoard board = (SubBoard) other;
+			return ship == board.ship && closedLow == board.closedLow && closedHigh == board.closedHigh
+					&& coveredLow == board.coveredLow && coveredHigh == board.coveredHigh;
+		}
+
+		@Override
+		public int hashCode() {
+			long hash = ship;
+			hash = hash * 0x9E3779B97F4A7C15L + closedLow;
+			hash = hash * 0x9E3779B97F4A7C15L + closedHigh;
+			hash = hash * 0x9E3779B97F4A7C15L + coveredLow;
+			hash = hash * 0x9E3779B97F4A7C15L + coveredHigh;
+			return Long.hashCode(hash ^ (hash >>> 29));
+		}
+	}
+}
@@ -0,0 +1,317 @@
+package battleShip;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import battleShip.BattleShipModel.gridState;
+
+/**
+ * The placements open to each remaining ship for one move, given what the ai
+ * has seen of the opponent's board. Shared read only by the tasks that sample
+ * or count layouts from them. Masks are kept as pairs of longs in flat arrays
+ * so that drawing a layout allocates nothing.
+ *
+ * @author Matthew Washburn, Peyton Baker
+ * @version Spring 2025
+ *
+ */
+class FleetLayouts {
+	// Samples taken between checks of the clock
+	private static final int CHECK_INTERVAL = 32;
+
+	// Placements of each ship clear of misses and sunk ships, as the low and
+	// high words of their masks, indexed [ship][placement]
+	final long[][] lows;
+	final long[][] highs;
+	// Cells each placement keeps other ships off, itself and with ships apart
+	// also its neighbours, indexed [ship][placement]
+	final long[][] haloLows;
+	final long[][] haloHighs;
+	// Placements of each ship covering each cell, indexed [ship][cell]
+	final int[][][] covering;
+	// Hits that the layout must cover
+	final long hitsLow;
+	final long hitsHigh;
+	// Length of each ship
+	final int[] lengths;
+
+	/**
+	 * @param opponentView         the ai's view of the opponent's board
+	 * @param remainingShipLengths lengths of the ships not yet sunk
+	 * @param shipsApart           whether no two ships may touch, even
+	 *                             diagonally
+	 */
+	FleetLayouts(gridState[][] opponentView, List<Integer> remainingShipLengths, boolean shipsApart) {
+		this(remainingShipLengths, obstaclesOf(opponentView, shipsApart),
+				BitBoard.of(opponentView, gridState.Hit).andNot(BitBoard.of(opponentView, gridState.Sunk)),
+				shipsApart);
+	}
+
+	private FleetLayouts(List<Integer> shipLengths, BitBoard obstacles, BitBoard hits, boolean shipsApart) {
+		lengths = shipLengths.stream().mapToInt(Integer::intValue).toArray();
+		hitsLow = hits.low();
+		hitsHigh = hits.high();
+		int ships = shipLengths.size();
+		lows = new long[ships][];
+		highs = new long[ships][];
+		haloLows = new long[ships][];
+		haloHighs = new long[ships][];
+		covering = new int[ships][BitBoard.CELLS][];
+		for (int ship = 0; ship < ships; ship++) {
+			int length = shipLengths.get(ship);
+			List<BitBoard> open = new ArrayList<>();
+			List<BitBoard> halos = new ArrayList<>();
+			for (int direction = 1; direction <= 2; direction++) {
+				for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+					int row = cell / BitBoard.SIZE;
+					int col = cell % BitBoard.SIZE;
+					BitBoard placement = BitBoard.ship(row, col, direction, length);
+					if (placement != null && !placement.intersects(obstacles)) {
+						open.add(placement);
+						halos.add(shipsApart ? BitBoard.halo(row, col, direction, length) : placement);
+					}
+				}
+			}
+			lows[ship] = new long[open.size()];
+			highs[ship] = new long[open.size()];
+			haloLows[ship] = new long[open.size()];
+			haloHighs[ship] = new long[open.size()];
+			int[] covers = new int[BitBoard.CELLS];
+			for (int i = 0; i < open.size(); i++) {
+				lows[ship][i] = open.get(i).low();
+				highs[ship][i] = open.get(i).high();
+				haloLows[ship][i] = halos.get(i).low();
+				haloHighs[ship][i] = halos.get(i).high();
+				for (BitBoard rest = open.get(i); !rest.isEmpty(); rest = rest.andNot(BitBoard.of(rest.first()))) {
+					covers[rest.first()]++;
+				}
+			}
+			for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+				covering[ship][cell] = new int[covers[cell]];
+				covers[cell] = 0;
+			}
+			for (int i = 0; i < open.size(); i++) {
+				for (BitBoard rest = open.get(i); !rest.isEmpty(); rest = rest.andNot(BitBoard.of(rest.first()))) {
+					int cell = rest.first();
+					covering[ship][cell][covers[cell]++] = i;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param opponentView the ai's view of the opponent's board
+	 * @param shipsApart   whether no two ships may touch
+	 * @return the cells no remaining ship can lie on: misses, sunk ships and,
+	 *         with ships apart, the cells around sunk ships
+	 */
+	private static BitBoard obstaclesOf(gridState[][] opponentView, boolean shipsApart) {
+		BitBoard sunk = BitBoard.of(opponentView, gridState.Sunk);
+		BitBoard obstacles = BitBoard.of(opponentView, gridState.Miss).or(sunk);
+		if (shipsApart) {
+			// no other ship may touch a sunk one
+			for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+				if (sunk.get(cell)) {
+					obstacles = obstacles.or(BitBoard.halo(cell / BitBoard.SIZE, cell % BitBoard.SIZE, 1, 1));
+				}
+			}
+		}
+		return obstacles;
+	}
+
+	/**
+	 * Bounds the number of layouts without building the placement lists, so it
+	 * is cheap enough to check before every move
+	 *
+	 * @param opponentView         the ai's view of the opponent's board
+	 * @param remainingShipLengths lengths of the ships not yet sunk
+	 * @param shipsApart           whether no two ships may touch
+	 * @param cap                  value to stop counting at
+	 * @return the product of the numbers of open placements of each ship, or
+	 *         cap + 1 once the product passes cap
+	 */
+	static long placementProduct(gridState[][] opponentView, List<Integer> remainingShipLengths,
+			boolean shipsApart, long cap) {
+		BitBoard obstacles = obstaclesOf(opponentView, shipsApart);
+		long product = 1;
+		for (int length : remainingShipLengths) {
+			int open = 0;
+			for (int direction = 1; direction <= 2; direction++) {
+				for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+					BitBoard placement = BitBoard.ship(cell / BitBoard.SIZE, cell % BitBoard.SIZE, direction, length);
+					if (placement != null && !placement.intersects(obstacles)) {
+						open++;
+					}
+				}
+			}
+			if (open == 0) {
+				return 0;
+			}
+			if (product > cap / open) {
+				return cap + 1;
+			}
+			product *= open;
+		}
+		return product;
+	}
+
+	/**
+	 * Samples layouts until the deadline, weighting each by the inverse of the
+	 * chance of drawing it so that every consistent layout counts the same
+	 *
+	 * @param random   the task's own random source
+	 * @param deadline System.nanoTime value to stop at
+	 * @return weighted cover counts indexed by cell, followed by the total weight
+	 */
+	double[] sampleUntil(SplittableRandom random, long deadline) {
+		double[] weights = new double[BitBoard.CELLS + 1];
+		int[] chosen = new int[lows.length];
+		do {
+			for (int i = 0; i < CHECK_INTERVAL; i++) {
+				sample(random, chosen, weights);
+			}
+		} while (System.nanoTime() - deadline < 0);
+		return weights;
+	}
+
+	/**
+	 * Draws the ships of one layout but the last one not needed for a hit, and
+	 * adds every way of finishing it with that ship. Every choice is uniform
+	 * among its options, and the open hits are covered lowest cell first, so
+	 * each partial layout can be drawn in exactly one way and is weighted by
+	 * the product of the numbers of options, the inverse of its chance. Summing
+	 * over the last ship instead of drawing it keeps those weights from varying
+	 * as much between samples.
+	 *
+	 * @param random  the task's own random source
+	 * @param chosen  scratch for the placement index of each ship
+	 * @param weights weighted cover counts to add to, indexed by cell, followed
+	 *                by the total weight
+	 */
+	private void sample(SplittableRandom random, int[] chosen, double[] weights) {
+		Arrays.fill(chosen, -1);
+		double weight = 1;
+		// cells covered by the ships placed so far, and cells closed to the rest
+		long low = 0;
+		long high = 0;
+		long closedLow = 0;
+		long closedHigh = 0;
+		// cover the open hits first, the lowest uncovered hit at a time
+		for (long openLow = hitsLow, openHigh = hitsHigh; (openLow | openHigh) != 0; openLow = hitsLow
+				& ~low, openHigh = hitsHigh & ~high) {
+			int target = (openLow != 0) ? Long.numberOfTrailingZeros(openLow)
+					: 64 + Long.numberOfTrailingZeros(openHigh);
+			int options = 0;
+			for (int ship = 0; ship < chosen.length; ship++) {
+				if (chosen[ship] < 0) {
+					for (int i : covering[ship][target]) {
+						if ((lows[ship][i] & closedLow) == 0 && (highs[ship][i] & closedHigh) == 0) {
+							options++;
+						}
+					}
+				}
+			}
+			if (options == 0) {
+				return;
+			}
+			weight *= options;
+			int choice = random.nextInt(options);
+			search: for (int ship = 0; ship < chosen.length; ship++) {
+				if (chosen[ship] < 0) {
+					for (int i : covering[ship][target]) {
+						if ((lows[ship][i] & closedLow) == 0 && (highs[ship][i] & closedHigh) == 0
+								&& choice-- == 0) {
+							chosen[ship] = i;
+							low |= lows[ship][i];
+							high |= highs[ship][i];
+							closedLow |= haloLows[ship][i];
+							closedHigh |= haloHighs[ship][i];
+							break search;
+						}
+					}
+				}
+			}
+		}
+		// then place the rest anywhere still free, all but the last in turn
+		int last = chosen.length - 1;
+		while (last >= 0 && chosen[last] >= 0) {
+			last--;
+		}
+		for (int ship = 0; ship < last; ship++) {
+			if (chosen[ship] >= 0) {
+				continue;
+			}
+			int free = countFree(lows[ship], highs[ship], closedLow, closedHigh);
+			if (free == 0) {
+				return;
+			}
+			weight *= free;
+			int i = pickFree(lows[ship], highs[ship], closedLow, closedHigh, random.nextInt(free));
+			chosen[ship] = i;
+			closedLow |= haloLows[ship][i];
+			closedHigh |= haloHighs[ship][i];
+		}
+		// and every placement of the last, each finishing the layout once
+		int finishes = 1;
+		if (last >= 0) {
+			finishes = 0;
+			for (int i = 0; i < lows[last].length; i++) {
+				if ((lows[last][i] & closedLow) == 0 && (highs[last][i] & closedHigh) == 0) {
+					finishes++;
+					add(weights, lows[last][i], highs[last][i], weight);
+				}
+			}
+		}
+		weight *= finishes;
+		for (int ship = 0; ship < chosen.length; ship++) {
+			if (ship != last) {
+				add(weights, lows[ship][chosen[ship]], highs[ship][chosen[ship]], weight);
+			}
+		}
+		weights[BitBoard.CELLS] += weight;
+	}
+
+	/**
+	 * Adds a weight to every cell of a placement
+	 *
+	 * @param weights weighted cover counts indexed by cell
+	 * @param low     cells 0 to 63 of the placement
+	 * @param high    cells 64 to 99 of the placement
+	 * @param weight  the weight to add
+	 */
+	private static void add(double[] weights, long low, long high, double weight) {
+		for (; low != 0; low &= low - 1) {
+			weights[Long.numberOfTrailingZeros(low)] += weight;
+		}
+		for (; high != 0; high &= high - 1) {
+			weights[64 + Long.numberOfTrailingZeros(high)] += weight;
+		}
+	}
+
+	/**
+	 * @return the number of placements clear of the closed cells
+	 */
+	private static int countFree(long[] lows, long[] highs, long low, long high) {
+		int free = 0;
+		for (int i = 0; i < lows.length; i++) {
+			if ((lows[i] & low) == 0 && (highs[i] & high) == 0) {
+				free++;
+			}
+		}
+		return free;
+	}
+
+	/**
+	 * @param choice which of the placements clear of the closed cells to take,
+	 *               counting from 0
+	 * @return the index of that placement
+	 */
+	private static int pickFree(long[] lows, long[] highs, long low, long high, int choice) {
+		for (int i = 0;; i++) {
+			if ((lows[i] & low) == 0 && (highs[i] & high) == 0 && choice-- == 0) {
+				return i;
+			}
+		}
+	}
+}
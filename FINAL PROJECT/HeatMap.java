@@ -0,0 +1,185 @@
+package battleShip;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the expected value heat map used for hunting up to date between
+ * shots. The heat of a cell is the number of ways a remaining ship can lie
+ * across it without touching a cell already fired at, counted once per
+ * remaining ship of each length. Rather than recounting every placement of
+ * every ship each turn, the map remembers which placements are still open and
+ * closes only the ones that cover cells fired at since the last update, so an
+ * update costs the number of placements those shots close.
+ *
+ * @author Matthew Washburn, Peyton Baker
+ * @version Spring 2025
+ *
+ */
+public class HeatMap {
+	// Cells each placement of a length covers, indexed [length][placement]
+	private static final int[][][] PLACEMENT_CELLS = new int[BitBoard.SIZE + 1][][];
+	// Placements of a length covering each cell, indexed [length][cell]
+	private static final int[][][] COVERING = new int[BitBoard.SIZE + 1][][];
+
+	static {
+		for (int length = 1; length <= BitBoard.SIZE; length++) {
+			int[][] cells = new int[2 * BitBoard.SIZE * (BitBoard.SIZE - length + 1)][];
+			int[] covers = new int[BitBoard.CELLS];
+			int placement = 0;
+			for (int direction = 1; direction <= 2; direction++) {
+				for (int anchor = 0; anchor < BitBoard.CELLS; anchor++) {
+					BitBoard ship = BitBoard.ship(anchor / BitBoard.SIZE, anchor % BitBoard.SIZE, direction, length);
+					if (ship == null) {
+						continue;
+					}
+					cells[placement] = new int[length];
+					int i = 0;
+					for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+						if (ship.get(cell)) {
+							cells[placement][i++] = cell;
+							covers[cell]++;
+						}
+					}
+					placement++;
+				}
+			}
+			int[][] covering = new int[BitBoard.CELLS][];
+			for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+				covering[cell] = new int[covers[cell]];
+				covers[cell] = 0;
+			}
+			for (placement = 0; placement < cells.length; placement++) {
+				for (int cell : cells[placement]) {
+					covering[cell][covers[cell]++] = placement;
+				}
+			}
+			PLACEMENT_CELLS[length] = cells;
+			COVERING[length] = covering;
+		}
+	}
+
+	// Cells fired at as of the last update
+	private BitBoard blocked = BitBoard.EMPTY;
+	// Whether each placement is still open, indexed [length][placement], null
+	// for lengths not yet tracked
+	private final boolean[][] open = new boolean[BitBoard.SIZE + 1][];
+	// Open placements of each length covering each cell
+	private final int[][] counts = new int[BitBoard.SIZE + 1][];
+	// Remaining ships of each length
+	private final int[] remaining = new int[BitBoard.SIZE + 1];
+	// Open placements covering each cell, weighted by the remaining ships
+	private final int[] heat = new int[BitBoard.CELLS];
+
+	/**
+	 * Brings the map up to date with the opponent's board. A set of fired cells
+	 * that does not include every cell seen before is taken to be a new game and
+	 * the map starts over.
+	 *
+	 * @param newBlocked           every cell fired at, whether hit, missed or
+	 *                             sunk
+	 * @param remainingShipLengths lengths of the ships not yet sunk
+	 */
+	public void update(BitBoard newBlocked, List<Integer> remainingShipLengths) {
+		if (!newBlocked.contains(blocked)) {
+			reset();
+		}
+		// close the placements across each newly fired cell
+		BitBoard fired = newBlocked.andNot(blocked);
+		blocked = newBlocked;
+		while (!fired.isEmpty()) {
+			int cell = fired.first();
+			fired = fired.andNot(BitBoard.of(cell));
+			for (int length = 1; length <= BitBoard.SIZE; length++) {
+				if (open[length] != null) {
+					close(length, cell);
+				}
+			}
+		}
+
+		// reweight lengths whose number of remaining ships changed
+		int[] ships = new int[BitBoard.SIZE + 1];
+		for (int length : remainingShipLengths) {
+			ships[length]++;
+		}
+		for (int length = 1; length <= BitBoard.SIZE; length++) {
+			if (ships[length] != remaining[length]) {
+				if (open[length] == null) {
+					track(length);
+				}
+				int change = ships[length] - remaining[length];
+				for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+					heat[cell] += change * counts[length][cell];
+				}
+				remaining[length] = ships[length];
+			}
+		}
+	}
+
+	/**
+	 * @param row
+	 * @param col
+	 * @return the weighted number of open placements across the cell
+	 */
+	public int get(int row, int col) {
+		return heat[BitBoard.cell(row, col)];
+	}
+
+	/**
+	 * Closes every open placement of a length that covers a cell
+	 *
+	 * @param length
+	 * @param cell
+	 */
+	private void close(int length, int cell) {
+		boolean[] lengthOpen = open[length];
+		int[] lengthCounts = counts[length];
+		int weight = remaining[length];
+		for (int placement : COVERING[length][cell]) {
+			if (lengthOpen[placement]) {
+				lengthOpen[placement] = false;
+				for (int covered : PLACEMENT_CELLS[length][placement]) {
+					lengthCounts[covered]--;
+					heat[covered] -= weight;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Starts counting the open placements of a length, with no weight until the
+	 * remaining ships are applied
+	 *
+	 * @param length
+	 */
+	private void track(int length) {
+		int[][] cells = PLACEMENT_CELLS[length];
+		open[length] = new boolean[cells.length];
+		counts[length] = new int[BitBoard.CELLS];
+		for (int placement = 0; placement < cells.length; placement++) {
+			boolean clear = true;
+			for (int cell : cells[placement]) {
+				clear &= !blocked.get(cell);
+			}
+			if (clear) {
+				open[length][placement] = true;
+				for (int cell : cells[placement]) {
+					counts[length][cell]++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forgets everything for a new game
+	 */
+	private void reset() {
+		blocked = BitBoard.EMPTY;
+		for (int length = 1; length <= BitBoard.SIZE; length++) {
+			open[length] = null;
+			counts[length] = null;
+			remaining[length] = 0;
+		}
+		Arrays.fill(heat, 0);
+	}
+}
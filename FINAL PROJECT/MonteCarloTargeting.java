@@ -0,0 +1,210 @@
+package battleShip;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.random.RandomGenerator;
+import battleShip.BattleShipModel.gridState;
+
+/**
+ * Chooses shots from the posterior of complete fleet layouts rather than from
+ * each ship on its own. A layout places every remaining ship so that no two
+ * overlap, none lies on a miss or a sunk ship, and together they cover every
+ * hit that is not yet part of a sunk ship. Layouts are sampled by the calling
+ * thread and tasks on a fork-join pool until the time budget for the move
+ * runs out, and the unfired cell most likely to hold a ship is chosen.
+ *
+ * Each sample first covers the open hits, each time picking a ship and a
+ * placement across the lowest uncovered hit, then places the remaining ships
+ * uniformly among the placements still free. Some layouts are more likely to
+ * be drawn this way than others, so each is weighted by the inverse of its
+ * chance of being drawn, which makes the weighted counts an unbiased estimate
+ * of the uniform posterior over consistent layouts. When the opponent is
+ * known to keep its ships apart, as this ai's own placement does, layouts can
+ * be limited to ships that do not touch.
+ *
+ * @author Matthew Washburn, Peyton Baker
+ * @version Spring 2025
+ *
+ */
+public class MonteCarloTargeting {
+	// Pool the sampling tasks run on
+	private final ForkJoinPool pool;
+	// Sampling time allowed per move
+	private final long budgetNanos;
+	// Whether only layouts with no two ships touching are sampled
+	private boolean shipsApart;
+
+	/**
+	 * Creates a targeter sampling on the common pool
+	 *
+	 * @param budget sampling time allowed per move
+	 */
+	public MonteCarloTargeting(Duration budget) {
+		this(budget, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param budget sampling time allowed per move
+	 * @param pool   pool to run the sampling tasks on, one per worker
+	 */
+	public MonteCarloTargeting(Duration budget, ForkJoinPool pool) {
+		this.budgetNanos = budget.toNanos();
+		this.pool = pool;
+	}
+
+	/**
+	 * @param shipsApart whether the opponent never places ships touching each
+	 *                   other, even diagonally
+	 */
+	public void setShipsApart(boolean shipsApart) {
+		this.shipsApart = shipsApart;
+	}
+
+	/**
+	 * @return the pool the sampling tasks run on
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * @return the System.nanoTime at which a move started now must be chosen
+	 */
+	public long deadline() {
+		return System.nanoTime() + budgetNanos;
+	}
+
+	/**
+	 * Samples layouts consistent with the view until the budget runs out
+	 *
+	 * @param opponentView         the ai's view of the opponent's board
+	 * @param remainingShipLengths lengths of the ships not yet sunk
+	 * @param random               source for the seeds of the sampling tasks
+	 * @return the estimated chance that each cell holds a ship, indexed by cell,
+	 *         or null if no layout was found in time
+	 */
+	public double[] sample(gridState[][] opponentView, List<Integer> remainingShipLengths, RandomGenerator random) {
+		return sample(opponentView, remainingShipLengths, random, deadline());
+	}
+
+	/**
+	 * Samples layouts consistent with the view until a deadline
+	 *
+	 * @param opponentView         the ai's view of the opponent's board
+	 * @param remainingShipLengths lengths of the ships not yet sunk
+	 * @param random               source for the seeds of the sampling tasks
+	 * @param deadline             System.nanoTime to stop sampling at
+	 * @return the estimated chance that each cell holds a ship, indexed by cell,
+	 *         or null if no layout was found in time
+	 */
+	public double[] sample(gridState[][] opponentView, List<Integer> remainingShipLengths, RandomGenerator random,
+			long deadline) {
+		FleetLayouts layouts = new FleetLayouts(opponentView, remainingShipLengths, shipsApart);
+
+		// the calling thread samples alongside a task per remaining core, so it is
+		// never parked waiting and no more threads compete than there are cores
+		int helpers = Math.min(pool.getParallelism(), Runtime.getRuntime().availableProcessors() - 1);
+		List<ForkJoinTask<double[]>> tasks = new ArrayList<>();
+		for (int worker = 0; worker < helpers; worker++) {
+			SplittableRandom taskRandom = new SplittableRandom(random.nextLong());
+			tasks.add(pool.submit(() -> layouts.sampleUntil(taskRandom, deadline)));
+		}
+		double[] weights = layouts.sampleUntil(new SplittableRandom(random.nextLong()), deadline);
+		for (ForkJoinTask<double[]> task : tasks) {
+			double[] taskWeights = task.join();
+			for (int cell = 0; cell <= BitBoard.CELLS; cell++) {
+				weights[cell] += taskWeights[cell];
+			}
+		}
+		// the last slot holds the total weight of the layouts sampled
+		double total = weights[BitBoard.CELLS];
+		if (total == 0) {
+			return null;
+		}
+		double[] chances = new double[BitBoard.CELLS];
+		for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+			chances[cell] = weights[cell] / total;
+		}
+		return chances;
+	}
+
+	/**
+	 * Picks the unfired cell most likely to hold a ship
+	 *
+	 * @param opponentView         the ai's view of the opponent's board
+	 * @param remainingShipLengths lengths of the ships not yet sunk
+	 * @param random               source for seeds and for breaking ties
+	 * @return [row, col] coordinates to fire at, or null if no layout was found
+	 *         in time
+	 */
+	public int[] chooseMove(gridState[][] opponentView, List<Integer> remainingShipLengths, RandomGenerator random) {
+		return chooseMove(opponentView, remainingShipLengths, random, deadline());
+	}
+
+	/**
+	 * Picks the unfired cell most likely to hold a ship, sampling only until a
+	 * deadline, for a move that has already spent part of its budget
+	 *
+	 * @param opponentView         the ai's view of the opponent's board
+	 * @param remainingShipLengths lengths of the ships not yet sunk
+	 * @param random               source for seeds and for breaking ties
+	 * @param deadline             System.nanoTime to stop sampling at
+	 * @return [row, col] coordinates to fire at, or null if no layout was found
+	 *         in time
+	 */
+	public int[] chooseMove(gridState[][] opponentView, List<Integer> remainingShipLengths, RandomGenerator random,
+			long deadline) {
+		double[] chances = sample(opponentView, remainingShipLengths, random, deadline);
+		return chances == null ? null : mostLikelyCell(opponentView, chances, random);
+	}
+
+	/**
+	 * @param opponentView the ai's view of the opponent's board
+	 * @param counts       how many layouts cover each cell, indexed by cell
+	 * @param random       source for breaking ties
+	 * @return [row, col] of an unfired cell with the highest count, or null if
+	 *         every unfired cell has a count of 0
+	 */
+	static int[] mostLikelyCell(gridState[][] opponentView, long[] counts, RandomGenerator random) {
+		double[] weights = new double[BitBoard.CELLS];
+		for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+			weights[cell] = counts[cell];
+		}
+		return mostLikelyCell(opponentView, weights, random);
+	}
+
+	/**
+	 * @param opponentView the ai's view of the opponent's board
+	 * @param weights      how likely each cell is to hold a ship, indexed by cell
+	 * @param random       source for breaking ties
+	 * @return [row, col] of an unfired cell with the highest weight, or null if
+	 *         every unfired cell has a weight of 0
+	 */
+	static int[] mostLikelyCell(gridState[][] opponentView, double[] weights, RandomGenerator random) {
+		double maxWeight = 0;
+		List<int[]> bestMoves = new ArrayList<>();
+		for (int i = 0; i < BitBoard.SIZE; i++) {
+			for (int j = 0; j < BitBoard.SIZE; j++) {
+				if (opponentView[i][j] != gridState.Empty) {
+					continue;
+				}
+				double weight = weights[BitBoard.cell(i, j)];
+				if (weight > maxWeight) {
+					bestMoves.clear();
+					maxWeight = weight;
+				}
+				if (weight == maxWeight && weight > 0) {
+					bestMoves.add(new int[] { i, j });
+				}
+			}
+		}
+		if (bestMoves.isEmpty()) {
+			return null;
+		}
+		return bestMoves.get(random.nextInt(bestMoves.size()));
+	}
+}
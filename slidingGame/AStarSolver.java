@@ -0,0 +1,134 @@
+package slidinggame;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A* search. The open list is a binary heap of packed (f, h, node) longs and
+ * the closed set is a packed state set, so no node allocates an object.
+ * Returns an optimal solution when the heuristic is admissible; nodes are
+ * reopened if a shorter path is found, so consistency is not required.
+ */
+public class AStarSolver implements SlidingGameSolver {
+
+	/** Bits reserved for the node index in a heap entry */
+	private static final int INDEX_BITS = 32;
+
+	/** Bits reserved for h in a heap entry */
+	private static final int H_BITS = 16;
+
+	/** Estimate of the remaining moves */
+	private final SlidingGameHeuristic heuristic;
+
+	/**
+	 * Constructor
+	 * @param newHeuristic The estimate used to order the search
+	 */
+	public AStarSolver(SlidingGameHeuristic newHeuristic)
+	{
+		heuristic = newHeuristic;
+	}
+
+	@Override
+	public boolean isOptimal()
+	{
+		return true;
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start)
+	{
+		return solve(start, new SolverMetrics());
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start, SolverMetrics metrics)
+	{
+		PackedStateSet states = new PackedStateSet(start.getSize(), 1024);
+		ParentLinks links = new ParentLinks(1024);
+		int[] g = new int[1024];
+		int[] h = new int[1024];
+		BitSet closed = new BitSet();
+		LongHeap open = new LongHeap();
+
+		states.insert(start);
+		links.setRoot(0);
+		h[0] = heuristic.estimate(start);
+		open.push(entry(0, h[0], 0));
+		// Packed key and slot about 16 bytes, g and h 8, parent link 5
+		metrics.stateBytes(29);
+
+		SlidingGameState current = new SlidingGameState(start);
+		while (!open.isEmpty())
+		{
+			long top = open.pop();
+			int node = (int) top;
+			// Skip stale entries left behind when a node's g improved
+			if (closed.get(node) || (top >>> (INDEX_BITS + H_BITS)) != g[node] + h[node])
+				continue;
+			states.load(node, current);
+			metrics.visited(states.size());
+			metrics.frontier(open.size() + 1);
+			metrics.expanded();
+			long clock = metrics.clock();
+			boolean win = current.isWin();
+			clock = metrics.lap(SolverMetrics.Phase.GOAL_CHECK, clock);
+			if (win)
+				return links.pathTo(node);
+			closed.set(node);
+
+			for (Direction move : Direction.ALL)
+			{
+				if (!current.isValid(move))
+					continue;
+				// Never slide straight back to the parent
+				if (links.getParent(node) >= 0 && links.getMove(node) == move.opposite())
+					continue;
+				current.slide(move);
+				metrics.generated();
+				clock = metrics.lap(SolverMetrics.Phase.GENERATION, clock);
+				int index = states.insert(current);
+				clock = metrics.lap(SolverMetrics.Phase.DEDUP, clock);
+				int childG = g[node] + 1;
+				if (index >= 0)
+				{
+					if (index == g.length)
+					{
+						g = Arrays.copyOf(g, index * 2);
+						h = Arrays.copyOf(h, index * 2);
+					}
+					g[index] = childG;
+					h[index] = heuristic.estimate(current);
+					links.set(index, node, move);
+					open.push(entry(index, h[index], childG));
+				}
+				else
+				{
+					metrics.duplicate();
+					index = -index - 1;
+					if (childG < g[index])
+					{
+						g[index] = childG;
+						links.set(index, node, move);
+						closed.clear(index);
+						open.push(entry(index, h[index], childG));
+					}
+				}
+				current.slide(move.opposite());
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Packs a heap entry ordered by f, then by smaller h
+	 * @param node Index of the node
+	 * @param hValue Heuristic value of the node
+	 * @param gValue Moves from the start to the node
+	 * @return The packed entry
+	 */
+	private static long entry(int node, int hValue, int gValue)
+	{
+		return ((long) (gValue + hValue) << (INDEX_BITS + H_BITS)) | ((long) hValue << INDEX_BITS) | node;
+	}
+}
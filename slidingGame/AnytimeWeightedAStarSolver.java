@@ -0,0 +1,360 @@
+package slidinggame;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+/**
+ * Anytime solver for boards too large to solve optimally. Runs weighted A*
+ * (f = g + w * h) with a falling sequence of weights, restarting the search
+ * each time: a high weight finds some solution quickly and each later round
+ * looks for a shorter one, pruning any node that cannot beat the best
+ * solution so far. The search stops when the deadline passes, the node budget
+ * is used up, or a round with weight 1 completes, and returns the best
+ * solution found.
+ *
+ * Every improvement is reported with a bound on its suboptimality: the
+ * solution is at most bound times longer than an optimal one. The bound comes
+ * from the smallest g + h left on the open list when the solution was found,
+ * which no optimal solution can be shorter than when the heuristic is
+ * admissible.
+ */
+public class AnytimeWeightedAStarSolver implements SlidingGameSolver {
+
+	/** Weights tried in order, in hundredths so priorities stay integers */
+	private static final int[] DEFAULT_WEIGHTS = {500, 300, 200, 150, 125, 100};
+
+	/** Denominator of the weights */
+	private static final int WEIGHT_SCALE = 100;
+
+	/** Bits reserved for the node index in a heap entry */
+	private static final int INDEX_BITS = 32;
+
+	/** Expansions between deadline checks */
+	private static final int CLOCK_INTERVAL = 1024;
+
+	/** Estimate of the remaining moves */
+	private final SlidingGameHeuristic heuristic;
+
+	/** Time allowed per solve, in nanoseconds */
+	private final long timeLimitNanos;
+
+	/** Most states stored in a single round */
+	private final int maxStates;
+
+	/** Weights tried in order, in hundredths */
+	private final int[] weights;
+
+	/**
+	 * A solution found while the search was running
+	 */
+	public static class Incumbent {
+		private final Direction[] moves;
+		private final double weight;
+		private final double bound;
+		private final long elapsedMillis;
+
+		Incumbent(Direction[] newMoves, double newWeight, double newBound, long newElapsedMillis)
+		{
+			moves = newMoves;
+			weight = newWeight;
+			bound = newBound;
+			elapsedMillis = newElapsedMillis;
+		}
+
+		/**
+		 * Getter for the moves
+		 * @return The moves of the empty space in order
+		 */
+		public Direction[] getMoves()
+		{
+			return moves;
+		}
+
+		/**
+		 * Getter for the weight of the round that found this solution
+		 * @return The heuristic weight
+		 */
+		public double getWeight()
+		{
+			return weight;
+		}
+
+		/**
+		 * Getter for the suboptimality bound
+		 * @return At least the solution length divided by the optimal length; 1 if optimal
+		 */
+		public double getBound()
+		{
+			return bound;
+		}
+
+		/**
+		 * Getter for the time taken to find this solution
+		 * @return Milliseconds since the solve started
+		 */
+		public long getElapsedMillis()
+		{
+			return elapsedMillis;
+		}
+	}
+
+	/**
+	 * Constructor
+	 * @param newHeuristic The estimate used to order the search, admissible for the bound to hold
+	 * @param timeLimitMillis Time allowed per solve
+	 * @param newMaxStates Most states stored at once, which caps memory
+	 */
+	public AnytimeWeightedAStarSolver(SlidingGameHeuristic newHeuristic, long timeLimitMillis, int newMaxStates)
+	{
+		heuristic = newHeuristic;
+		timeLimitNanos = timeLimitMillis * 1_000_000L;
+		maxStates = newMaxStates;
+		weights = DEFAULT_WEIGHTS;
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start)
+	{
+		return solve(start, new SolverMetrics());
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start, SolverMetrics metrics)
+	{
+		return solve(start, metrics, incumbent -> {
+		});
+	}
+
+	/**
+	 * Searches until the deadline or budget runs out or an optimal solution is known
+	 * @param start The state to solve from, not modified
+	 * @param onImprovement Called with each shorter solution as it is found
+	 * @return The shortest solution found, or null if the board is unsolvable or none was found in time
+	 */
+	public Direction[] solve(SlidingGameState start, Consumer<Incumbent> onImprovement)
+	{
+		return solve(start, new SolverMetrics(), onImprovement);
+	}
+
+	/**
+	 * Searches until the deadline or budget runs out or an optimal solution is
+	 * known, counting the work of every round
+	 * @param start The state to solve from, not modified
+	 * @param metrics Filled in with node counts and peaks as the search runs
+	 * @param onImprovement Called with each shorter solution as it is found
+	 * @return The shortest solution found, or null if the board is unsolvable or none was found in time
+	 */
+	public Direction[] solve(SlidingGameState start, SolverMetrics metrics, Consumer<Incumbent> onImprovement)
+	{
+		if (!start.isSolvable())
+			return null;
+		long began = System.nanoTime();
+		long deadline = began + timeLimitNanos;
+		Direction[] best = null;
+		int lowerBound = heuristic.estimate(start);
+		for (int weight : weights)
+		{
+			Round round = new Round(weight, best == null ? Integer.MAX_VALUE : best.length, deadline);
+			Direction[] found;
+			try
+			{
+				found = round.run(start, metrics);
+			}
+			catch (SolveAbortedException e)
+			{
+				// Stopped by SolveOptions limits: the best solution so far is still an answer
+				if (best == null)
+					throw e;
+				break;
+			}
+			if (round.aborted)
+				break;
+			if (found == null)
+			{
+				// Nothing shorter exists: the open list ran dry with every node pruned by the incumbent
+				if (best != null && lowerBound < best.length)
+					onImprovement.accept(new Incumbent(best, weight / (double) WEIGHT_SCALE, 1.0, millisSince(began)));
+				return best;
+			}
+			best = found;
+			lowerBound = Math.max(lowerBound, Math.min(round.minimumF, best.length));
+			double bound = lowerBound == 0 ? 1.0 : best.length / (double) lowerBound;
+			onImprovement.accept(new Incumbent(best, weight / (double) WEIGHT_SCALE, bound, millisSince(began)));
+			if (bound <= 1.0)
+				break;
+		}
+		return best;
+	}
+
+	/**
+	 * Milliseconds elapsed
+	 * @param began Value of System.nanoTime at the start
+	 * @return Milliseconds since then
+	 */
+	private static long millisSince(long began)
+	{
+		return (System.nanoTime() - began) / 1_000_000L;
+	}
+
+	/**
+	 * One weighted A* search
+	 */
+	private class Round {
+		private final int weight;
+		private final int incumbentLength;
+		private final long deadline;
+
+		/** True if the round stopped on the deadline or the node budget */
+		boolean aborted;
+
+		/** Smallest g + h on the open list when the goal was found */
+		int minimumF = Integer.MAX_VALUE;
+
+		private int[] g = new int[1024];
+		private int[] h = new int[1024];
+
+		Round(int newWeight, int newIncumbentLength, long newDeadline)
+		{
+			weight = newWeight;
+			incumbentLength = newIncumbentLength;
+			deadline = newDeadline;
+		}
+
+		/**
+		 * Runs the search
+		 * @param start The state to solve from
+		 * @param metrics Counters for the solve
+		 * @return A solution shorter than the incumbent, or null if there is none or the round was aborted
+		 */
+		Direction[] run(SlidingGameState start, SolverMetrics metrics)
+		{
+			// PackedStateSet stores boards over 4x4 one byte per cell
+			PackedStateSet states = new PackedStateSet(start.getSize(), 1024);
+			ParentLinks links = new ParentLinks(1024);
+			BitSet closed = new BitSet();
+			LongHeap open = new LongHeap();
+
+			states.insert(start);
+			links.setRoot(0);
+			h[0] = heuristic.estimate(start);
+			open.push(entry(0));
+
+			SlidingGameState current = new SlidingGameState(start);
+			// Stored board (packed key or a byte per cell) and slot, g and h, parent link
+			int boardBytes = start.isPackable() ? 8 : start.getSize() * start.getSize();
+			metrics.stateBytes(boardBytes + 8 + 8 + 5);
+			return search(states, links, closed, open, current, metrics);
+		}
+
+		/**
+		 * Expands nodes in weighted f order until the goal, the deadline or the budget
+		 * @param states Stored boards, holding the root
+		 * @param links Parent links of the stored boards
+		 * @param closed Boards already expanded
+		 * @param open Heap entries waiting to be expanded
+		 * @param current Scratch board
+		 * @param metrics Counters for the solve
+		 * @return A solution shorter than the incumbent, or null if there is none or the round was aborted
+		 */
+		private Direction[] search(PackedStateSet states, ParentLinks links, BitSet closed, LongHeap open,
+				SlidingGameState current, SolverMetrics metrics)
+		{
+			int expanded = 0;
+			while (!open.isEmpty())
+			{
+				long top = open.pop();
+				int node = (int) top;
+				if (closed.get(node) || (top >>> INDEX_BITS) != priority(node))
+					continue;
+				if (++expanded % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline > 0)
+				{
+					aborted = true;
+					return null;
+				}
+				states.load(node, current);
+				metrics.visited(states.size());
+				metrics.frontier(open.size() + 1);
+				metrics.expanded();
+				if (current.isWin())
+				{
+					minimumF = Math.min(g[node] + h[node], minimumOpenF(open));
+					return links.pathTo(node);
+				}
+				closed.set(node);
+
+				// Never slide straight back to the parent
+				Direction previous = links.getParent(node) >= 0 ? links.getMove(node) : null;
+				for (Direction move : current.legalMoves(previous))
+				{
+					current.slide(move);
+					metrics.generated();
+					int childG = g[node] + 1;
+					int index = states.insert(current);
+					if (index >= 0)
+					{
+						if (index == g.length)
+						{
+							g = Arrays.copyOf(g, index * 2);
+							h = Arrays.copyOf(h, index * 2);
+						}
+						g[index] = childG;
+						h[index] = heuristic.estimate(current);
+						links.set(index, node, move);
+						// Nodes that cannot beat the incumbent stay stored but are never queued
+						if (childG + h[index] < incumbentLength)
+							open.push(entry(index));
+					}
+					else
+					{
+						metrics.duplicate();
+						index = -index - 1;
+						if (childG < g[index])
+						{
+							g[index] = childG;
+							links.set(index, node, move);
+							closed.clear(index);
+							if (childG + h[index] < incumbentLength)
+								open.push(entry(index));
+						}
+					}
+					current.unslide(move);
+				}
+				if (states.size() >= maxStates)
+				{
+					aborted = true;
+					return null;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Smallest unweighted f among live open entries
+		 * @param open The open list
+		 * @return The smallest g + h, or Integer.MAX_VALUE if the list is empty
+		 */
+		private int minimumOpenF(LongHeap open)
+		{
+			int minimum = Integer.MAX_VALUE;
+			for (int i = 0; i < open.size(); i++)
+			{
+				long value = open.get(i);
+				int node = (int) value;
+				if ((value >>> INDEX_BITS) == priority(node))
+					minimum = Math.min(minimum, g[node] + h[node]);
+			}
+			return minimum;
+		}
+
+		private long priority(int node)
+		{
+			return (long) g[node] * WEIGHT_SCALE + (long) weight * h[node];
+		}
+
+		private long entry(int node)
+		{
+			return (priority(node) << INDEX_BITS) | node;
+		}
+	}
+}
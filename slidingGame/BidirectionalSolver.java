@@ -0,0 +1,138 @@
+package slidinggame;
+
+/**
+ * Breadth-first search run from the start and from the winning state at the
+ * same time, always growing the smaller frontier by one full layer. It stops
+ * as soon as a new state is already known to the other side, which explores
+ * about 2 * b^(d/2) states instead of b^d and still returns a shortest
+ * solution.
+ */
+public class BidirectionalSolver implements SlidingGameSolver {
+
+	@Override
+	public boolean isOptimal()
+	{
+		return true;
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start)
+	{
+		return solve(start, new SolverMetrics());
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start, SolverMetrics metrics)
+	{
+		if (start.isWin())
+			return new Direction[0];
+		// Both sides would exhaust their half of the state space without meeting
+		if (!start.isSolvable())
+			return null;
+
+		Side forward = new Side(start);
+		Side backward = new Side(SlidingGameState.winningState(start.getSize()));
+		SlidingGameState current = new SlidingGameState(start);
+		// Packed key and slot about 16 bytes, parent link 5
+		metrics.stateBytes(21);
+		return search(forward, backward, current, metrics);
+	}
+
+	/**
+	 * Grows the two sides until they meet
+	 * @param forward The side searched from the start
+	 * @param backward The side searched from the winning state
+	 * @param current Scratch board
+	 * @param metrics Counters for the solve
+	 * @return The moves, or null if the sides never meet
+	 */
+	private static Direction[] search(Side forward, Side backward, SlidingGameState current, SolverMetrics metrics)
+	{
+		while (forward.hasFrontier() && backward.hasFrontier())
+		{
+			metrics.frontier(forward.frontierSize() + backward.frontierSize());
+			boolean growForward = forward.frontierSize() <= backward.frontierSize();
+			Side side = growForward ? forward : backward;
+			Side other = growForward ? backward : forward;
+
+			int layerEnd = side.states.size();
+			for (int node = side.layerStart; node < layerEnd; node++)
+			{
+				side.states.load(node, current);
+				metrics.visited(forward.states.size() + backward.states.size());
+				metrics.expanded();
+				for (Direction move : Direction.ALL)
+				{
+					if (!current.isValid(move))
+						continue;
+					current.slide(move);
+					metrics.generated();
+					int index = side.states.insert(current);
+					if (index >= 0)
+					{
+						side.links.set(index, node, move);
+						// Every meeting found in the first layer that meets has the same length
+						int meet = other.states.indexOf(current);
+						if (meet >= 0)
+							return growForward ? splice(forward, index, backward, meet)
+									: splice(forward, meet, backward, index);
+					}
+					else
+						metrics.duplicate();
+					current.slide(move.opposite());
+				}
+			}
+			side.layerStart = layerEnd;
+		}
+		return null;
+	}
+
+	/**
+	 * Joins the path from the start to a meeting state with the reversed path
+	 * from the winning state to that same state
+	 * @param forward The side searched from the start
+	 * @param forwardIndex Index of the meeting state on the forward side
+	 * @param backward The side searched from the winning state
+	 * @param backwardIndex Index of the meeting state on the backward side
+	 * @return The full move list
+	 */
+	private static Direction[] splice(Side forward, int forwardIndex, Side backward, int backwardIndex)
+	{
+		Direction[] head = forward.links.pathTo(forwardIndex);
+		Direction[] tail = backward.links.pathTo(backwardIndex);
+		Direction[] moves = new Direction[head.length + tail.length];
+		System.arraycopy(head, 0, moves, 0, head.length);
+		// Walk the backward path from its end, undoing each move
+		for (int i = 0; i < tail.length; i++)
+			moves[head.length + i] = tail[tail.length - 1 - i].opposite();
+		return moves;
+	}
+
+	/**
+	 * One direction of the search. States are stored in BFS order, so the
+	 * frontier is always the range from layerStart to the end of the set.
+	 */
+	private static class Side {
+		final PackedStateSet states;
+		final ParentLinks links;
+		int layerStart;
+
+		Side(SlidingGameState root)
+		{
+			states = new PackedStateSet(root.getSize(), 1024);
+			links = new ParentLinks(1024);
+			states.insert(root);
+			links.setRoot(0);
+		}
+
+		boolean hasFrontier()
+		{
+			return layerStart < states.size();
+		}
+
+		int frontierSize()
+		{
+			return states.size() - layerStart;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package slidinggame;
+
+/**
+ * The symmetry of the winning state under transposition. Reflecting a board
+ * about its main diagonal and renumbering every tile to the number whose home
+ * is the mirror of its own home maps the winning state to itself, so a board
+ * and its mirror are the same distance from the goal, and a solution of one
+ * becomes a solution of the other by swapping up with left and down with
+ * right. The other symmetries of the square move the empty space's home
+ * corner, so this is the only one the goal has.
+ */
+public final class BoardSymmetry {
+
+	private BoardSymmetry()
+	{
+	}
+
+	/**
+	 * The move that mirrors another under transposition
+	 * @param direction A move on the original board
+	 * @return The matching move on the transposed board
+	 */
+	public static Direction transpose(Direction direction)
+	{
+		switch (direction)
+		{
+		case UP:
+			return Direction.LEFT;
+		case LEFT:
+			return Direction.UP;
+		case DOWN:
+			return Direction.RIGHT;
+		default:
+			return Direction.DOWN;
+		}
+	}
+
+	/**
+	 * Mirrors a move list under transposition
+	 * @param moves Moves on the original board
+	 * @return The matching moves on the transposed board
+	 */
+	public static Direction[] transpose(Direction[] moves)
+	{
+		Direction[] mirrored = new Direction[moves.length];
+		for (int step = 0; step < moves.length; step++)
+			mirrored[step] = transpose(moves[step]);
+		return mirrored;
+	}
+
+	/**
+	 * Builds the mirror of a board
+	 * @param state The board to mirror, not modified
+	 * @return A new state holding the transposed and renumbered board
+	 */
+	public static SlidingGameState transpose(SlidingGameState state)
+	{
+		int size = state.getSize();
+		int[] cells = new int[size * size];
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+				cells[j * size + i] = relabel(state.board[i][j], size);
+		return new SlidingGameState(size, cells);
+	}
+
+	/**
+	 * Mirrors a nibble-packed board
+	 * @param key The packed board
+	 * @param size Dimension of the board, at most 4
+	 * @return The packed transposed and renumbered board
+	 */
+	public static long transposeKey(long key, int size)
+	{
+		long mirrored = 0;
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+			{
+				long tile = relabel((int) ((key >>> (4 * (i * size + j))) & 0xF), size);
+				mirrored |= tile << (4 * (j * size + i));
+			}
+		return mirrored;
+	}
+
+	/**
+	 * Packed key shared by a board and its mirror, the smaller of the two
+	 * @param state A board of at most 4x4
+	 * @return The canonical key
+	 */
+	public static long canonicalKey(SlidingGameState state)
+	{
+		long key = state.pack();
+		return Math.min(key, transposeKey(key, state.getSize()));
+	}
+
+	/**
+	 * The number of the tile whose home mirrors the home of another
+	 * @param tile A tile number, 0 for the empty space
+	 * @param size Dimension of the board
+	 * @return The renumbered tile
+	 */
+	private static int relabel(int tile, int size)
+	{
+		if (tile == 0)
+			return 0;
+		int row = (tile - 1) / size;
+		int col = (tile - 1) % size;
+		return col * size + row + 1;
+	}
+}
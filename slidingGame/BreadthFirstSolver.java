@@ -0,0 +1,67 @@
+package slidinggame;
+
+/**
+ * Uninformed breadth-first search. Returns a shortest solution but explores
+ * every state closer to the start than the goal, so it is only practical for
+ * 3x3 and smaller boards.
+ */
+public class BreadthFirstSolver implements SlidingGameSolver {
+
+	@Override
+	public boolean isOptimal()
+	{
+		return true;
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start)
+	{
+		return solve(start, new SolverMetrics());
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start, SolverMetrics metrics)
+	{
+		// Each visited state gets a dense index; the table's insertion order doubles as the BFS queue
+		boolean ranked = start.getSize() <= RankedStateTable.MAX_SIZE;
+		StateTable visitedStates = ranked
+				? new RankedStateTable(start.getSize())
+				: new PackedStateSet(start.getSize(), 1024);
+		ParentLinks links = new ParentLinks(1024);
+		visitedStates.insert(start);
+		links.setRoot(0);
+		// Parent links take 5 bytes a state, a ranked table 4 more, a packed one about 16
+		metrics.stateBytes(ranked ? 9 : 21);
+
+		SlidingGameState current = new SlidingGameState(start); // Scratch board, reloaded per node
+		for (int head = 0; head < visitedStates.size(); head++)
+		{
+			visitedStates.load(head, current);
+			metrics.visited(visitedStates.size());
+			metrics.frontier(visitedStates.size() - head);
+			metrics.expanded();
+			// Check if current state is a win
+			long clock = metrics.clock();
+			boolean win = current.isWin();
+			clock = metrics.lap(SolverMetrics.Phase.GOAL_CHECK, clock);
+			if (win)
+				return links.pathTo(head);
+			// Otherwise generate all possible moves
+			for (Direction move : current.legalMoves(null))
+			{
+				current.slide(move);
+				metrics.generated();
+				clock = metrics.lap(SolverMetrics.Phase.GENERATION, clock);
+				// track visited states and prevent loops
+				int index = visitedStates.insert(current);
+				if (index >= 0)
+					links.set(index, head, move);
+				else
+					metrics.duplicate();
+				clock = metrics.lap(SolverMetrics.Phase.DEDUP, clock);
+				current.unslide(move);
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,97 @@
+package slidinggame;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free open-addressing set of nibble-packed boards. Threads add keys
+ * with a compare-and-set on an empty slot. Growing the table is not
+ * thread-safe, so callers reserve room between parallel phases.
+ */
+class ConcurrentPackedStateSet {
+
+	/** Slot value marking an unused entry; no real board packs to zero */
+	private static final long EMPTY = 0;
+
+	/** Largest table, 4 GB of keys */
+	static final int MAX_SLOTS = 1 << 29;
+
+	/** The table of keys */
+	private AtomicLongArray table;
+
+	/**
+	 * Constructor
+	 * @param expected Number of keys expected
+	 */
+	public ConcurrentPackedStateSet(int expected)
+	{
+		table = new AtomicLongArray(tableSizeFor(expected));
+	}
+
+	/**
+	 * Adds a key. Safe to call from many threads at once.
+	 * @param key A packed board
+	 * @return True if this call added the key, false if it was already present
+	 * @throws IllegalStateException If the table is full because more keys
+	 *         were added than reserved
+	 */
+	public boolean add(long key)
+	{
+		AtomicLongArray slots = table;
+		int mask = slots.length() - 1;
+		int slot = PackedStateSet.mix(key) & mask;
+		for (int probes = 0; probes < slots.length(); probes++)
+		{
+			long present = slots.get(slot);
+			if (present == EMPTY)
+			{
+				if (slots.compareAndSet(slot, EMPTY, key))
+					return true;
+				present = slots.get(slot);
+			}
+			if (present == key)
+				return false;
+			slot = (slot + 1) & mask;
+		}
+		throw new IllegalStateException("Set is full; reserve room before adding");
+	}
+
+	/**
+	 * Makes sure the table can take more keys while staying under half full.
+	 * Must not run concurrently with add.
+	 * @param stored Number of keys currently stored
+	 * @param extra Upper bound on the keys that will be added before the next call
+	 * @throws SolveAbortedException With BUDGET_EXHAUSTED if the keys would
+	 *         not fit in MAX_SLOTS at half full
+	 */
+	public void reserve(long stored, long extra)
+	{
+		long needed = 2 * (stored + extra);
+		if (needed <= table.length())
+			return;
+		if (needed > MAX_SLOTS)
+			throw new SolveAbortedException(SolveResult.Status.BUDGET_EXHAUSTED);
+		AtomicLongArray old = table;
+		table = new AtomicLongArray(tableSizeFor((int) needed));
+		int mask = table.length() - 1;
+		for (int i = 0; i < old.length(); i++)
+		{
+			long key = old.get(i);
+			if (key == EMPTY)
+				continue;
+			int slot = PackedStateSet.mix(key) & mask;
+			while (table.get(slot) != EMPTY)
+				slot = (slot + 1) & mask;
+			table.set(slot, key);
+		}
+	}
+
+	/**
+	 * Power of two table length holding at least the given number of slots
+	 * @param slots Number of slots wanted
+	 * @return The table length
+	 */
+	private static int tableSizeFor(int slots)
+	{
+		return Math.max(64, Integer.highestOneBit(Math.max(1, slots - 1)) << 1);
+	}
+}
@@ -0,0 +1,61 @@
+package slidinggame;
+
+/**
+ * The four ways the empty space can slide. Offsets match the arguments of
+ * SlidingGameState.moveToken.
+ */
+public enum Direction {
+	UP(-1, 0), DOWN(1, 0), LEFT(0, -1), RIGHT(0, 1);
+
+	/** Row offset of the empty space */
+	private final int rowOffset;
+
+	/** Column offset of the empty space */
+	private final int colOffset;
+
+	/** All directions, cached so searches do not clone values() per node */
+	static final Direction[] ALL = values();
+
+	Direction(int newRowOffset, int newColOffset)
+	{
+		rowOffset = newRowOffset;
+		colOffset = newColOffset;
+	}
+
+	/**
+	 * Getter for the row offset
+	 * @return -1 for up, +1 for down, 0 otherwise
+	 */
+	public int getRowOffset()
+	{
+		return rowOffset;
+	}
+
+	/**
+	 * Getter for the column offset
+	 * @return -1 for left, +1 for right, 0 otherwise
+	 */
+	public int getColOffset()
+	{
+		return colOffset;
+	}
+
+	/**
+	 * The direction that undoes this one
+	 * @return The opposite direction
+	 */
+	public Direction opposite()
+	{
+		switch (this)
+		{
+		case UP:
+			return DOWN;
+		case DOWN:
+			return UP;
+		case LEFT:
+			return RIGHT;
+		default:
+			return LEFT;
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package slidinggame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Exact solver for the 3x3 puzzle backed by a table of the optimal distance
+ * of every arrangement, one byte per permutation rank. The table is built
+ * once by a breadth-first search backwards from the winning state and can be
+ * saved to a file and loaded at startup. A query then just follows
+ * neighbours whose distance is one less, with no search at all.
+ */
+public class DistanceTableSolver implements SlidingGameSolver {
+
+	/** First four bytes of a distance table file, "SDST" */
+	private static final int MAGIC = 0x53445354;
+
+	/** Board size the table covers */
+	private static final int SIZE = 3;
+
+	/** Number of arrangements of a 3x3 board, 9! */
+	private static final int PERMUTATIONS = 362880;
+
+	/** Table entry for arrangements that cannot reach the winning state */
+	private static final int UNREACHABLE = 0xFF;
+
+	/** Number of arrangements that can reach the winning state, 9! / 2 */
+	private static final int REACHABLE = PERMUTATIONS / 2;
+
+	/** Most moves any 3x3 arrangement needs */
+	private static final int MAX_DISTANCE = 31;
+
+	/** Optimal distance to the winning state, indexed by rank */
+	private final byte[] distance;
+
+	/**
+	 * Constructor
+	 * @param table Distances indexed by permutation rank
+	 */
+	private DistanceTableSolver(byte[] table)
+	{
+		distance = table;
+	}
+
+	/**
+	 * Builds the table with a breadth-first search from the winning state.
+	 * Only the 181,440 solvable arrangements are reached.
+	 * @return A solver holding the new table
+	 */
+	public static DistanceTableSolver build()
+	{
+		byte[] table = new byte[PERMUTATIONS];
+		Arrays.fill(table, (byte) UNREACHABLE);
+		int[] queue = new int[REACHABLE];
+		SlidingGameState current = SlidingGameState.winningState(SIZE);
+		queue[0] = (int) current.rank();
+		table[queue[0]] = 0;
+		int tail = 1;
+		for (int head = 0; head < tail; head++)
+		{
+			current.unrank(queue[head]);
+			int next = table[queue[head]] + 1;
+			for (Direction move : Direction.ALL)
+			{
+				if (!current.isValid(move))
+					continue;
+				current.slide(move);
+				int rank = (int) current.rank();
+				if ((table[rank] & 0xFF) == UNREACHABLE)
+				{
+					table[rank] = (byte) next;
+					queue[tail++] = rank;
+				}
+				current.slide(move.opposite());
+			}
+		}
+		return new DistanceTableSolver(table);
+	}
+
+	/**
+	 * Reads a table saved by write
+	 * @param file The table file
+	 * @return A solver holding the loaded table
+	 * @throws IOException If the file cannot be read or is not a valid distance table
+	 */
+	public static DistanceTableSolver load(Path file) throws IOException
+	{
+		byte[] table = read(file);
+		if (table == null)
+			throw new IOException("Not a valid 3x3 distance table: " + file);
+		return new DistanceTableSolver(table);
+	}
+
+	/**
+	 * Loads a saved table, or builds one and saves it if the file does not
+	 * exist or does not hold a valid table
+	 * @param file The table file
+	 * @return A solver holding the table
+	 * @throws IOException If the file exists but cannot be read, or cannot be written
+	 */
+	public static DistanceTableSolver loadOrBuild(Path file) throws IOException
+	{
+		if (Files.exists(file))
+		{
+			byte[] table = read(file);
+			if (table != null)
+				return new DistanceTableSolver(table);
+		}
+		DistanceTableSolver solver = build();
+		solver.write(file);
+		return solver;
+	}
+
+	/**
+	 * Reads a table file and checks that its entries could be a distance
+	 * table: the winning state at 0, exactly half the arrangements at 1 to
+	 * 31 moves and the rest unreachable. A truncated or corrupted file would
+	 * otherwise send solve after neighbours that do not exist.
+	 * @param file The table file
+	 * @return The table, or null if the file does not hold a valid one
+	 * @throws IOException If the file cannot be read
+	 */
+	private static byte[] read(Path file) throws IOException
+	{
+		byte[] contents = Files.readAllBytes(file);
+		ByteBuffer buffer = ByteBuffer.wrap(contents);
+		if (contents.length != 4 + PERMUTATIONS || buffer.getInt() != MAGIC)
+			return null;
+		byte[] table = new byte[PERMUTATIONS];
+		buffer.get(table);
+		int goal = (int) SlidingGameState.winningState(SIZE).rank();
+		int reachable = 0;
+		for (int rank = 0; rank < PERMUTATIONS; rank++)
+		{
+			int d = table[rank] & 0xFF;
+			if (d == UNREACHABLE)
+				continue;
+			if ((rank == goal) != (d == 0) || d > MAX_DISTANCE)
+				return null;
+			reachable++;
+		}
+		return reachable == REACHABLE ? table : null;
+	}
+
+	/**
+	 * Saves the table
+	 * @param file Where to write the table
+	 * @throws IOException If the file cannot be written
+	 */
+	public void write(Path file) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(4 + PERMUTATIONS);
+		buffer.putInt(MAGIC);
+		buffer.put(distance);
+		Files.write(file, buffer.array());
+	}
+
+	/**
+	 * Looks up the optimal number of moves from a state
+	 * @param state A 3x3 state
+	 * @return The number of moves, or -1 if the state cannot be solved
+	 */
+	public int distance(SlidingGameState state)
+	{
+		checkSize(state);
+		int d = distance[(int) state.rank()] & 0xFF;
+		return d == UNREACHABLE ? -1 : d;
+	}
+
+	@Override
+	public boolean isOptimal()
+	{
+		return true;
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start)
+	{
+		checkSize(start);
+		if (!start.isSolvable())
+			return null;
+		SlidingGameState current = new SlidingGameState(start);
+		int remaining = distance[(int) current.rank()] & 0xFF;
+		Direction[] moves = new Direction[remaining];
+		for (int step = 0; step < moves.length; step++, remaining--)
+		{
+			for (Direction move : Direction.ALL)
+			{
+				if (!current.isValid(move))
+					continue;
+				current.slide(move);
+				// Some neighbour is always exactly one move closer
+				if ((distance[(int) current.rank()] & 0xFF) == remaining - 1)
+				{
+					moves[step] = move;
+					break;
+				}
+				current.slide(move.opposite());
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Rejects states the table does not cover
+	 * @param state The state to check
+	 */
+	private static void checkSize(SlidingGameState state)
+	{
+		if (state.getSize() != SIZE)
+			throw new IllegalArgumentException("Distance table only covers 3x3 boards");
+	}
+}
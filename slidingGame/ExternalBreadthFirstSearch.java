@@ -0,0 +1,434 @@
+package slidinggame;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Breadth-first enumeration that keeps its frontiers on disk, for state
+ * spaces far larger than memory. Each layer is a file of sorted, distinct
+ * packed boards. Successors are buffered in memory, sorted and spilled as
+ * runs; a streaming k-way merge then drops duplicates and every board already
+ * in the previous two layers. At most MAX_FAN_IN runs are open at once: when a
+ * layer spills more, groups of runs are first merged into longer runs, pass
+ * after pass, so file handles and I/O buffers stay bounded however large the
+ * layer is (the puzzle graph is bipartite, so a successor
+ * is either new or one layer back). Completed layers are recorded in a
+ * progress file, so an interrupted run resumes from the last finished layer,
+ * and layers older than two are deleted as soon as they are not needed.
+ */
+public class ExternalBreadthFirstSearch {
+
+	/** Bytes per packed board on disk */
+	private static final int LONG_BYTES = 8;
+
+	/** Buffer size for streaming reads and writes */
+	private static final int IO_BUFFER = 1 << 16;
+
+	/** Most runs merged at once, each holding a file handle and an I/O buffer */
+	static final int MAX_FAN_IN = 128;
+
+	/** File listing the size of every completed layer, one per line */
+	private static final String PROGRESS_FILE = "progress.txt";
+
+	/** Directory holding layers, runs and the progress file */
+	private final Path directory;
+
+	/** State the enumeration starts from */
+	private final SlidingGameState start;
+
+	/** Most successors held in memory before a sorted run is spilled */
+	private final int runCapacity;
+
+	/**
+	 * Constructor
+	 * @param newDirectory Working directory, created if missing; reuse it to resume
+	 * @param newStart State the enumeration starts from, at most 4x4
+	 * @param newRunCapacity Most boards buffered in memory per sorted run
+	 */
+	public ExternalBreadthFirstSearch(Path newDirectory, SlidingGameState newStart, int newRunCapacity)
+	{
+		if (!newStart.isPackable())
+			throw new IllegalArgumentException("External search only supports boards up to 4x4");
+		directory = newDirectory;
+		start = new SlidingGameState(newStart);
+		runCapacity = newRunCapacity;
+	}
+
+	/**
+	 * Runs (or resumes) the enumeration until no new states are found. The
+	 * last layer file is kept and holds the states farthest from the start.
+	 * @return Number of states at each distance from the start
+	 * @throws IOException If the working directory cannot be read or written
+	 */
+	public long[] run() throws IOException
+	{
+		Files.createDirectories(directory);
+		removePartialFiles();
+		List<Long> counts = readProgress();
+		if (counts.isEmpty())
+		{
+			try (LongWriter writer = new LongWriter(layerFile(0)))
+			{
+				writer.write(start.pack());
+			}
+			counts.add(1L);
+			writeProgress(counts);
+		}
+		int size = start.getSize();
+		while (counts.get(counts.size() - 1) > 0)
+		{
+			int depth = counts.size() - 1;
+			List<Path> runs = expand(layerFile(depth), size, depth + 1);
+			long found = merge(runs, depth + 1);
+			counts.add(found);
+			writeProgress(counts);
+			// Only the last two layers are needed to detect duplicates
+			if (depth >= 1)
+				Files.deleteIfExists(layerFile(depth - 1));
+		}
+		// The final layer is empty; keep the one before it as the farthest states
+		Files.deleteIfExists(layerFile(counts.size() - 1));
+		long[] distribution = new long[counts.size() - 1];
+		for (int d = 0; d < distribution.length; d++)
+			distribution[d] = counts.get(d);
+		return distribution;
+	}
+
+	/**
+	 * Getter for a layer file
+	 * @param depth Distance from the start
+	 * @return Path of the file holding that layer
+	 */
+	public Path layerFile(int depth)
+	{
+		return directory.resolve("layer-" + depth + ".bin");
+	}
+
+	/**
+	 * Generates every successor of a layer into sorted, deduplicated runs
+	 * @param layer The layer to expand
+	 * @param size Dimension of the board
+	 * @param nextDepth Depth of the layer being produced, used to name the runs
+	 * @return The run files
+	 * @throws IOException If a file cannot be read or written
+	 */
+	private List<Path> expand(Path layer, int size, int nextDepth) throws IOException
+	{
+		List<Path> runs = new ArrayList<>();
+		long[] buffer = new long[runCapacity];
+		int count = 0;
+		int cells = size * size;
+		try (LongReader reader = new LongReader(layer))
+		{
+			while (reader.hasNext())
+			{
+				long key = reader.next();
+				int blank = PackedBoards.blankOf(key, cells);
+				for (Direction move : Direction.ALL)
+				{
+					long child = PackedBoards.slide(key, size, blank, move);
+					if (child == 0)
+						continue;
+					if (count == buffer.length)
+					{
+						runs.add(spill(buffer, count, nextDepth, runs.size()));
+						count = 0;
+					}
+					buffer[count++] = child;
+				}
+			}
+		}
+		if (count > 0 || runs.isEmpty())
+			runs.add(spill(buffer, count, nextDepth, runs.size()));
+		return runs;
+	}
+
+	/**
+	 * Sorts a buffer and writes its distinct values as a run
+	 * @param buffer The successors
+	 * @param count Number of valid entries
+	 * @param nextDepth Depth of the layer being produced
+	 * @param index Number of the run within the layer
+	 * @return The run file
+	 * @throws IOException If the file cannot be written
+	 */
+	private Path spill(long[] buffer, int count, int nextDepth, int index) throws IOException
+	{
+		Arrays.sort(buffer, 0, count);
+		Path run = directory.resolve("run-" + nextDepth + "-" + index + ".bin");
+		try (LongWriter writer = new LongWriter(run))
+		{
+			for (int i = 0; i < count; i++)
+				if (i == 0 || buffer[i] != buffer[i - 1])
+					writer.write(buffer[i]);
+		}
+		return run;
+	}
+
+	/**
+	 * Merges runs into the next layer, dropping duplicates and anything in
+	 * the previous two layers. While there are more runs than MAX_FAN_IN,
+	 * each group of them is first merged into one longer run. The layer is
+	 * written to a temporary file and renamed, so a partial layer never looks
+	 * complete.
+	 * @param runs Sorted run files, deleted as they are merged into longer runs
+	 * @param nextDepth Depth of the layer being produced
+	 * @return Number of states in the new layer
+	 * @throws IOException If a file cannot be read or written
+	 */
+	private long merge(List<Path> runs, int nextDepth) throws IOException
+	{
+		for (int pass = 0; runs.size() > MAX_FAN_IN; pass++)
+		{
+			List<Path> merged = new ArrayList<>();
+			for (int from = 0; from < runs.size(); from += MAX_FAN_IN)
+			{
+				List<Path> group = runs.subList(from, Math.min(from + MAX_FAN_IN, runs.size()));
+				Path run = directory.resolve("run-" + nextDepth + "-pass" + pass + "-" + merged.size() + ".bin");
+				try (LongWriter writer = new LongWriter(run))
+				{
+					mergeRuns(group, writer, null, null);
+				}
+				for (Path input : group)
+					Files.delete(input);
+				merged.add(run);
+			}
+			runs = merged;
+		}
+		Path temporary = directory.resolve("layer-" + nextDepth + ".tmp");
+		long written;
+		try (LongWriter writer = new LongWriter(temporary);
+				LongReader current = new LongReader(layerFile(nextDepth - 1));
+				LongReader previous = nextDepth >= 2 ? new LongReader(layerFile(nextDepth - 2)) : null)
+		{
+			written = mergeRuns(runs, writer, current, previous);
+		}
+		for (Path run : runs)
+			Files.delete(run);
+		Files.move(temporary, layerFile(nextDepth), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return written;
+	}
+
+	/**
+	 * Streams the distinct values of sorted runs, in order, into a writer
+	 * @param runs Sorted run files, at most MAX_FAN_IN
+	 * @param writer Receives the merged values
+	 * @param current Sorted layer whose values are dropped, or null
+	 * @param previous Another sorted layer whose values are dropped, or null
+	 * @return Number of values written
+	 * @throws IOException If a file cannot be read or written
+	 */
+	private static long mergeRuns(List<Path> runs, LongWriter writer, LongReader current, LongReader previous)
+			throws IOException
+	{
+		PriorityQueue<LongReader> heads = new PriorityQueue<>((a, b) -> Long.compare(a.peek(), b.peek()));
+		List<LongReader> open = new ArrayList<>();
+		long written = 0;
+		try
+		{
+			for (Path run : runs)
+			{
+				LongReader reader = new LongReader(run);
+				open.add(reader);
+				if (reader.hasNext())
+					heads.add(reader);
+			}
+			long last = 0;
+			boolean any = false;
+			while (!heads.isEmpty())
+			{
+				LongReader smallest = heads.poll();
+				long key = smallest.next();
+				if (smallest.hasNext())
+					heads.add(smallest);
+				if (any && key == last)
+					continue;
+				any = true;
+				last = key;
+				if ((current != null && current.skipTo(key)) || (previous != null && previous.skipTo(key)))
+					continue;
+				writer.write(key);
+				written++;
+			}
+		}
+		finally
+		{
+			for (LongReader reader : open)
+				reader.close();
+		}
+		return written;
+	}
+
+	/**
+	 * Deletes runs and temporary files left behind by an interrupted layer
+	 * @throws IOException If the directory cannot be listed or a file deleted
+	 */
+	private void removePartialFiles() throws IOException
+	{
+		try (DirectoryStream<Path> partial = Files.newDirectoryStream(directory, "{run-*.bin,*.tmp}"))
+		{
+			for (Path file : partial)
+				Files.delete(file);
+		}
+	}
+
+	/**
+	 * Reads the sizes of completed layers, checking that the last two exist
+	 * @return The layer sizes, empty if the run has not started
+	 * @throws IOException If the progress file cannot be read
+	 */
+	private List<Long> readProgress() throws IOException
+	{
+		List<Long> counts = new ArrayList<>();
+		Path progress = directory.resolve(PROGRESS_FILE);
+		if (!Files.exists(progress))
+			return counts;
+		try (BufferedReader reader = Files.newBufferedReader(progress))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+				if (!line.isBlank())
+					counts.add(Long.parseLong(line.trim()));
+		}
+		int last = counts.size() - 1;
+		if (last >= 0 && counts.get(last) > 0 && !Files.exists(layerFile(last)))
+			throw new IOException("Layer " + last + " is missing from " + directory);
+		return counts;
+	}
+
+	/**
+	 * Rewrites the progress file atomically
+	 * @param counts Sizes of all completed layers
+	 * @throws IOException If the file cannot be written
+	 */
+	private void writeProgress(List<Long> counts) throws IOException
+	{
+		Path temporary = directory.resolve(PROGRESS_FILE + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(temporary))
+		{
+			for (long count : counts)
+			{
+				writer.write(Long.toString(count));
+				writer.newLine();
+			}
+		}
+		Files.move(temporary, directory.resolve(PROGRESS_FILE), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Streams longs from a file through a buffered channel
+	 */
+	static class LongReader implements AutoCloseable {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+		private boolean hasValue;
+		private long value;
+
+		LongReader(Path file) throws IOException
+		{
+			channel = FileChannel.open(file, StandardOpenOption.READ);
+			buffer.flip();
+			advance();
+		}
+
+		boolean hasNext()
+		{
+			return hasValue;
+		}
+
+		long peek()
+		{
+			return value;
+		}
+
+		long next() throws IOException
+		{
+			long result = value;
+			advance();
+			return result;
+		}
+
+		/**
+		 * Skips values smaller than a key in this sorted stream
+		 * @param key The value being looked for
+		 * @return True if the key is in the stream
+		 */
+		boolean skipTo(long key) throws IOException
+		{
+			while (hasValue && value < key)
+				advance();
+			return hasValue && value == key;
+		}
+
+		private void advance() throws IOException
+		{
+			if (buffer.remaining() < LONG_BYTES)
+			{
+				buffer.compact();
+				while (buffer.position() < LONG_BYTES && channel.read(buffer) > 0)
+				{
+				}
+				buffer.flip();
+			}
+			hasValue = buffer.remaining() >= LONG_BYTES;
+			if (hasValue)
+				value = buffer.getLong();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes longs to a file through a buffered channel, syncing on close
+	 */
+	static class LongWriter implements AutoCloseable {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+
+		LongWriter(Path file) throws IOException
+		{
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		}
+
+		void write(long value) throws IOException
+		{
+			if (buffer.remaining() < LONG_BYTES)
+				flush();
+			buffer.putLong(value);
+		}
+
+		private void flush() throws IOException
+		{
+			buffer.flip();
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			flush();
+			channel.force(true);
+			channel.close();
+		}
+	}
+}
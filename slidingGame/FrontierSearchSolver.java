@@ -0,0 +1,251 @@
+package slidinggame;
+
+/**
+ * Breadth-first search that keeps no closed list. Only the layer being
+ * expanded and the layer being built are held in memory, each board tagged
+ * with the moves that lead back to the previous layer. The puzzle graph is
+ * undirected and bipartite, so every neighbour of a board is either one layer
+ * back (and already marked as used) or one layer ahead; no older layer is
+ * needed to detect duplicates. Peak memory is the width of the two largest
+ * adjacent layers instead of the whole explored space.
+ *
+ * Without parent links the path is rebuilt by divide and conquer: a first
+ * pass finds the solution length, then each further pass carries every
+ * board's ancestor at the halfway depth, giving a middle state that splits
+ * the problem into two searches of half the depth. Boards larger than 4x4
+ * fall back to the sequential BreadthFirstSolver.
+ */
+public class FrontierSearchSolver implements SlidingGameSolver {
+
+	@Override
+	public boolean isOptimal()
+	{
+		return true;
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start)
+	{
+		return solve(start, new SolverMetrics());
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start, SolverMetrics metrics)
+	{
+		if (!start.isPackable())
+			return new BreadthFirstSolver().solve(start, metrics);
+		if (!start.isSolvable())
+			return null;
+
+		int size = start.getSize();
+		long from = start.pack();
+		long goal = SlidingGameState.winningState(size).pack();
+		Found found = search(from, goal, size, -1, metrics);
+		if (found == null)
+			return null;
+		Direction[] moves = new Direction[found.depth];
+		rebuild(from, goal, size, found.depth, moves, 0, metrics);
+		return moves;
+	}
+
+	/**
+	 * Fills in the moves between two boards a known distance apart
+	 * @param from The packed board to start from
+	 * @param to The packed board to reach
+	 * @param size Dimension of the board
+	 * @param depth Length of a shortest path between them
+	 * @param moves The solution being built
+	 * @param offset Index in moves of the first move from the start board
+	 * @param metrics Counters for the solve
+	 */
+	private static void rebuild(long from, long to, int size, int depth, Direction[] moves, int offset,
+			SolverMetrics metrics)
+	{
+		if (depth == 0)
+			return;
+		if (depth == 1)
+		{
+			moves[offset] = moveBetween(from, to, size);
+			return;
+		}
+		int half = depth / 2;
+		long middle = search(from, to, size, half, metrics).middle;
+		rebuild(from, middle, size, half, moves, offset, metrics);
+		rebuild(middle, to, size, depth - half, moves, offset + half, metrics);
+	}
+
+	/**
+	 * Layered search from one packed board to another
+	 * @param from The packed board to start from
+	 * @param to The packed board to reach
+	 * @param size Dimension of the board
+	 * @param middleDepth Depth whose ancestor is carried to the target, or -1 to carry none
+	 * @param metrics Counters for the solve
+	 * @return The target's depth and ancestor, or null if it is unreachable
+	 */
+	private static Found search(long from, long to, int size, int middleDepth, SolverMetrics metrics)
+	{
+		int cells = size * size;
+		boolean carry = middleDepth >= 0;
+		Layer current = new Layer(carry, 1);
+		current.add(from, 0, from);
+		// Key, mask and carried ancestor per slot, with up to four slots a board
+		metrics.stateBytes(carry ? 68 : 36);
+		for (int depth = 0; current.size() > 0; depth++)
+		{
+			int slot = current.find(to);
+			if (slot >= 0)
+				return new Found(depth, carry ? current.middles[slot] : 0);
+
+			Layer next = new Layer(carry, current.size() * 2);
+			for (slot = 0; slot < current.keys.length; slot++)
+			{
+				long key = current.keys[slot];
+				if (key == 0)
+					continue;
+				metrics.visited(current.size() + next.size());
+				metrics.expanded();
+				int used = current.used[slot];
+				// Boards at the halfway depth become the ancestor of everything below them
+				long middle = !carry ? 0 : depth == middleDepth ? key : current.middles[slot];
+				int blank = PackedBoards.blankOf(key, cells);
+				for (Direction move : Direction.ALL)
+				{
+					if ((used & (1 << move.ordinal())) != 0)
+						continue;
+					long child = PackedBoards.slide(key, size, blank, move);
+					if (child != 0)
+					{
+						metrics.generated();
+						if (!next.add(child, 1 << move.opposite().ordinal(), middle))
+							metrics.duplicate();
+					}
+				}
+			}
+			metrics.frontier(next.size());
+			// Drop the expanded layer before building the one after next
+			current = next;
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the move that turns one packed board into an adjacent one
+	 * @param from The board before the move
+	 * @param to The board after the move
+	 * @param size Dimension of the board
+	 * @return The direction the empty space moved
+	 */
+	private static Direction moveBetween(long from, long to, int size)
+	{
+		int cells = size * size;
+		int blank = PackedBoards.blankOf(from, cells);
+		for (Direction move : Direction.ALL)
+			if (PackedBoards.slide(from, size, blank, move) == to)
+				return move;
+		throw new IllegalStateException("Boards are not adjacent");
+	}
+
+	/**
+	 * Result of a layered search
+	 */
+	private static class Found {
+		final int depth;
+		final long middle;
+
+		Found(int newDepth, long newMiddle)
+		{
+			depth = newDepth;
+			middle = newMiddle;
+		}
+	}
+
+	/**
+	 * Open-addressing map from packed board to the mask of moves already used
+	 * to reach it, and optionally to its ancestor at the halfway depth. A
+	 * packed board always holds a nonzero tile, so 0 marks an empty slot.
+	 */
+	private static class Layer {
+		long[] keys;
+		byte[] used;
+		long[] middles;
+		private int count;
+
+		Layer(boolean carry, int expected)
+		{
+			int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, expected) * 2 - 1) << 1);
+			keys = new long[capacity];
+			used = new byte[capacity];
+			middles = carry ? new long[capacity] : null;
+		}
+
+		/**
+		 * Adds a board, or merges the used moves into the copy already present
+		 * @param key The packed board
+		 * @param mask Bits of the directions that lead back to the previous layer
+		 * @param middle Ancestor at the halfway depth, ignored when not carried
+		 * @return True if the board was new to the layer
+		 */
+		boolean add(long key, int mask, long middle)
+		{
+			int slot = slotOf(key);
+			if (keys[slot] == key)
+			{
+				used[slot] = (byte) (used[slot] | mask);
+				return false;
+			}
+			keys[slot] = key;
+			used[slot] = (byte) mask;
+			if (middles != null)
+				middles[slot] = middle;
+			if (++count * 2 > keys.length)
+				grow();
+			return true;
+		}
+
+		/**
+		 * Looks up a board
+		 * @param key The packed board
+		 * @return Its slot, or -1 if it is not in the layer
+		 */
+		int find(long key)
+		{
+			int slot = slotOf(key);
+			return keys[slot] == key ? slot : -1;
+		}
+
+		int size()
+		{
+			return count;
+		}
+
+		private int slotOf(long key)
+		{
+			int mask = keys.length - 1;
+			int slot = PackedStateSet.mix(key) & mask;
+			while (keys[slot] != 0 && keys[slot] != key)
+				slot = (slot + 1) & mask;
+			return slot;
+		}
+
+		private void grow()
+		{
+			long[] oldKeys = keys;
+			byte[] oldUsed = used;
+			long[] oldMiddles = middles;
+			keys = new long[oldKeys.length * 2];
+			used = new byte[keys.length];
+			middles = oldMiddles == null ? null : new long[keys.length];
+			for (int old = 0; old < oldKeys.length; old++)
+			{
+				if (oldKeys[old] == 0)
+					continue;
+				int slot = slotOf(oldKeys[old]);
+				keys[slot] = oldKeys[old];
+				used[slot] = oldUsed[old];
+				if (middles != null)
+					middles[slot] = oldMiddles[old];
+			}
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package slidinggame;
+
+import java.util.Arrays;
+
+/**
+ * Iterative-deepening A*. Runs depth-first searches bounded by f = g + h,
+ * raising the bound to the smallest f that exceeded it each round. Memory is
+ * proportional to the solution depth, and the solution is optimal when the
+ * heuristic is admissible.
+ */
+public class IDAStarSolver implements SlidingGameSolver {
+
+	/** Returned by a bounded search that reached the goal */
+	private static final int FOUND = -1;
+
+	/** Estimate of the remaining moves */
+	private final SlidingGameHeuristic heuristic;
+
+	/**
+	 * Constructor
+	 * @param newHeuristic The estimate used to bound the search
+	 */
+	public IDAStarSolver(SlidingGameHeuristic newHeuristic)
+	{
+		heuristic = newHeuristic;
+	}
+
+	@Override
+	public boolean isOptimal()
+	{
+		return true;
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start)
+	{
+		return solve(start, new SolverMetrics());
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start, SolverMetrics metrics)
+	{
+		// The bound would grow forever on a board that cannot be solved
+		if (!start.isSolvable())
+			return null;
+		Search search = new Search(start, metrics);
+		try
+		{
+			return search.run();
+		}
+		finally
+		{
+			// The only memory that grows is the path, one reference per move
+			metrics.retained(search.path.length * 8L);
+		}
+	}
+
+	/**
+	 * State of one solve, so a solver can run on several threads at once
+	 */
+	private class Search {
+
+		/** Board being searched, slid in place and restored on backtrack */
+		private final SlidingGameState current;
+
+		/** Estimator following the current board, from heuristic.track */
+		private final SlidingGameHeuristic estimator;
+
+		/** Counters for this solve */
+		private final SolverMetrics metrics;
+
+		/** Moves of the current path */
+		private Direction[] path = new Direction[64];
+
+		/** Length of the path when the goal was found */
+		private int depthFound;
+
+		Search(SlidingGameState start, SolverMetrics newMetrics)
+		{
+			current = new SlidingGameState(start);
+			estimator = heuristic.track(current);
+			metrics = newMetrics;
+		}
+
+		/**
+		 * Raises the bound until a round reaches the goal
+		 * @return The moves of the empty space in order, or null if there is no solution
+		 */
+		Direction[] run()
+		{
+			int bound = estimator.estimate(current);
+			while (true)
+			{
+				int result = search(0, bound, null);
+				if (result == FOUND)
+					return Arrays.copyOf(path, depthFound);
+				if (result == Integer.MAX_VALUE)
+					return null;
+				bound = result;
+			}
+		}
+
+		/**
+		 * Bounded depth-first search from the current board
+		 * @param g Moves made so far
+		 * @param bound Largest f allowed this round
+		 * @param previous The move that reached this node, or null at the root
+		 * @return FOUND, or the smallest f that exceeded the bound
+		 */
+		private int search(int g, int bound, Direction previous)
+		{
+			int f = g + estimator.estimate(current);
+			if (f > bound)
+				return f;
+			long clock = metrics.clock();
+			boolean win = current.isWin();
+			metrics.lap(SolverMetrics.Phase.GOAL_CHECK, clock);
+			if (win)
+			{
+				depthFound = g;
+				return FOUND;
+			}
+			metrics.expanded();
+			metrics.frontier(g + 1);
+			int next = Integer.MAX_VALUE;
+			for (Direction move : current.legalMoves(previous))
+			{
+				clock = metrics.clock();
+				current.slide(move);
+				estimator.slid(current, move);
+				metrics.generated();
+				metrics.lap(SolverMetrics.Phase.GENERATION, clock);
+				if (g == path.length)
+					path = Arrays.copyOf(path, g * 2);
+				path[g] = move;
+				int result = search(g + 1, bound, move);
+				current.unslide(move);
+				estimator.unslid(current, move);
+				if (result == FOUND)
+					return FOUND;
+				next = Math.min(next, result);
+			}
+			return next;
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package slidinggame;
+
+/**
+ * Manhattan distance plus linear conflicts. Two tiles that are both in their
+ * goal row (or column) but in reversed order need two extra moves beyond
+ * their Manhattan distance so one can step aside. The state maintains both
+ * terms as tiles move, so an estimate costs O(1).
+ */
+public class LinearConflictHeuristic extends ManhattanHeuristic {
+
+	@Override
+	public int estimate(SlidingGameState state)
+	{
+		return super.estimate(state) + state.getLinearConflicts();
+	}
+}
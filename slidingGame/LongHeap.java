@@ -0,0 +1,98 @@
+package slidinggame;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of primitive longs. Informed solvers pack a priority into
+ * the high bits and a node index into the low bits, so the open list needs no
+ * boxing or comparator calls.
+ */
+class LongHeap {
+
+	/** Heap-ordered entries */
+	private long[] heap = new long[1024];
+
+	/** Number of entries */
+	private int count;
+
+	/**
+	 * Adds an entry
+	 * @param value The entry to add
+	 */
+	public void push(long value)
+	{
+		if (count == heap.length)
+			heap = Arrays.copyOf(heap, count * 2);
+		int child = count++;
+		while (child > 0)
+		{
+			int parent = (child - 1) >>> 1;
+			if (heap[parent] <= value)
+				break;
+			heap[child] = heap[parent];
+			child = parent;
+		}
+		heap[child] = value;
+	}
+
+	/**
+	 * Removes the smallest entry
+	 * @return The smallest entry
+	 */
+	public long pop()
+	{
+		long top = heap[0];
+		long last = heap[--count];
+		int parent = 0;
+		int half = count >>> 1;
+		while (parent < half)
+		{
+			int child = 2 * parent + 1;
+			if (child + 1 < count && heap[child + 1] < heap[child])
+				child++;
+			if (last <= heap[child])
+				break;
+			heap[parent] = heap[child];
+			parent = child;
+		}
+		heap[parent] = last;
+		return top;
+	}
+
+	/**
+	 * Looks at the smallest entry without removing it
+	 * @return The smallest entry
+	 */
+	public long peek()
+	{
+		return heap[0];
+	}
+
+	/**
+	 * Reads an entry in heap order, for scanning the whole heap
+	 * @param index Position in the heap, from 0 to size() - 1
+	 * @return The entry at that position
+	 */
+	public long get(int index)
+	{
+		return heap[index];
+	}
+
+	/**
+	 * Checks whether the heap has entries
+	 * @return True if there are no entries
+	 */
+	public boolean isEmpty()
+	{
+		return count == 0;
+	}
+
+	/**
+	 * Getter for the number of entries
+	 * @return The number of entries
+	 */
+	public int size()
+	{
+		return count;
+	}
+}
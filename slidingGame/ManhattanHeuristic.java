@@ -0,0 +1,14 @@
+package slidinggame;
+
+/**
+ * Sum over all tiles of the row and column distance to the tile's goal cell.
+ * The state maintains this as tiles move, so an estimate costs O(1).
+ */
+public class ManhattanHeuristic implements SlidingGameHeuristic {
+
+	@Override
+	public int estimate(SlidingGameState state)
+	{
+		return state.getManhattanDistance();
+	}
+}
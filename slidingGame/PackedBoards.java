@@ -0,0 +1,45 @@
+package slidinggame;
+
+/**
+ * Operations on nibble-packed boards (see SlidingGameState.pack) for
+ * searches that never build a SlidingGameState per node.
+ */
+final class PackedBoards {
+
+	private PackedBoards()
+	{
+	}
+
+	/**
+	 * Applies a move to a packed board
+	 * @param key The packed board
+	 * @param size Dimension of the board
+	 * @param blank Cell index of the empty space
+	 * @param move Direction the empty space slides
+	 * @return The packed board after the move, or 0 if the move leaves the board
+	 */
+	static long slide(long key, int size, int blank, Direction move)
+	{
+		int row = blank / size + move.getRowOffset();
+		int col = blank % size + move.getColOffset();
+		if (row < 0 || row >= size || col < 0 || col >= size)
+			return 0;
+		int target = row * size + col;
+		long tile = (key >>> (4 * target)) & 0xF;
+		return (key & ~(0xFL << (4 * target))) | (tile << (4 * blank));
+	}
+
+	/**
+	 * Finds the empty space in a packed board
+	 * @param key The packed board
+	 * @param cells Number of cells on the board
+	 * @return Cell index of the empty space
+	 */
+	static int blankOf(long key, int cells)
+	{
+		for (int cell = 0; cell < cells; cell++)
+			if (((key >>> (4 * cell)) & 0xF) == 0)
+				return cell;
+		return -1;
+	}
+}
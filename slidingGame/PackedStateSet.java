@@ -0,0 +1,255 @@
+package slidinggame;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of sliding game boards. Boards up to 4x4 are stored as
+ * nibble-packed longs; larger boards are stored one byte per cell in a flat
+ * arena. Checking or adding a state does not allocate.
+ */
+class PackedStateSet implements StateTable {
+
+	/** Slot value marking an unused table entry */
+	private static final int EMPTY = 0;
+
+	/** Number of cells on each stored board */
+	private final int cells;
+
+	/** True if boards are stored as packed longs */
+	private final boolean packed;
+
+	/** Packed keys in insertion order (packed mode) */
+	private long[] longKeys;
+
+	/** Board cells in insertion order, cells bytes per state (byte mode) */
+	private byte[] byteKeys;
+
+	/** Hash table of key index + 1, EMPTY if unused */
+	private int[] table;
+
+	/** Number of states stored */
+	private int count;
+
+	/**
+	 * Constructor
+	 * @param size Dimension of the boards that will be stored
+	 * @param expected Number of states expected, used to size the table
+	 */
+	public PackedStateSet(int size, int expected)
+	{
+		cells = size * size;
+		packed = size <= SlidingGameState.PACKED_MAX_SIZE;
+		int capacity = Math.max(16, expected);
+		if (packed)
+			longKeys = new long[capacity];
+		else
+			byteKeys = new byte[capacity * cells];
+		table = new int[tableSizeFor(capacity)];
+	}
+
+	/**
+	 * Adds a state to the set
+	 * @param state The state to add
+	 * @return True if the state was not already present, false otherwise
+	 */
+	public boolean add(SlidingGameState state)
+	{
+		return insert(state) >= 0;
+	}
+
+	/**
+	 * Adds a state to the set and reports the index it was stored at. States
+	 * are indexed densely in insertion order, so callers can keep per-state
+	 * data in parallel arrays.
+	 * @param state The state to add
+	 * @return The new index, or -(existing index) - 1 if the state was already present
+	 */
+	@Override
+	public int insert(SlidingGameState state)
+	{
+		long key = packed ? state.pack() : 0;
+		int hash = packed ? mix(key) : hashBoard(state);
+		int mask = table.length - 1;
+		int slot = hash & mask;
+		while (table[slot] != EMPTY)
+		{
+			if (matches(table[slot] - 1, key, state))
+				return -table[slot];
+			slot = (slot + 1) & mask;
+		}
+		store(key, state);
+		table[slot] = count;
+		if (count * 2 > table.length)
+			rehash();
+		return count - 1;
+	}
+
+	/**
+	 * Copies a stored board into an existing state
+	 * @param index Index returned by insert
+	 * @param target State to overwrite, must have the same size
+	 */
+	@Override
+	public void load(int index, SlidingGameState target)
+	{
+		if (packed)
+			target.unpack(longKeys[index]);
+		else
+			target.loadBytes(byteKeys, index * cells);
+	}
+
+	/**
+	 * Checks whether a state is in the set
+	 * @param state The state to look up
+	 * @return True if the state has been added, false otherwise
+	 */
+	public boolean contains(SlidingGameState state)
+	{
+		return indexOf(state) >= 0;
+	}
+
+	/**
+	 * Looks up the index a state was stored at
+	 * @param state The state to look up
+	 * @return The index returned when it was inserted, or -1 if it is not present
+	 */
+	public int indexOf(SlidingGameState state)
+	{
+		long key = packed ? state.pack() : 0;
+		int hash = packed ? mix(key) : hashBoard(state);
+		int mask = table.length - 1;
+		int slot = hash & mask;
+		while (table[slot] != EMPTY)
+		{
+			if (matches(table[slot] - 1, key, state))
+				return table[slot] - 1;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Getter for the number of stored states
+	 * @return The number of states in the set
+	 */
+	@Override
+	public int size()
+	{
+		return count;
+	}
+
+	/**
+	 * Appends a key to the insertion-ordered key storage
+	 * @param key The packed key (packed mode only)
+	 * @param state The state being stored
+	 */
+	private void store(long key, SlidingGameState state)
+	{
+		if (packed)
+		{
+			if (count == longKeys.length)
+				longKeys = Arrays.copyOf(longKeys, count * 2);
+			longKeys[count] = key;
+		}
+		else
+		{
+			if ((count + 1) * cells > byteKeys.length)
+				byteKeys = Arrays.copyOf(byteKeys, byteKeys.length * 2);
+			int offset = count * cells;
+			int size = state.getSize();
+			for (int i = 0; i < size; i++)
+				for (int j = 0; j < size; j++)
+					byteKeys[offset++] = (byte) state.board[i][j];
+		}
+		count++;
+	}
+
+	/**
+	 * Compares a stored key against a state
+	 * @param index Index of the stored key
+	 * @param key The packed key of the state (packed mode only)
+	 * @param state The state to compare
+	 * @return True if they hold the same board
+	 */
+	private boolean matches(int index, long key, SlidingGameState state)
+	{
+		if (packed)
+			return longKeys[index] == key;
+		int offset = index * cells;
+		int size = state.getSize();
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+				if (byteKeys[offset++] != (byte) state.board[i][j])
+					return false;
+		return true;
+	}
+
+	/**
+	 * Hash of a stored key
+	 * @param index Index of the stored key
+	 * @return The hash of that key
+	 */
+	private int hashStored(int index)
+	{
+		if (packed)
+			return mix(longKeys[index]);
+		long h = 0;
+		int offset = index * cells;
+		for (int c = 0; c < cells; c++)
+			h = h * 31 + byteKeys[offset + c];
+		return mix(h);
+	}
+
+	/**
+	 * Hash of a board held in a state, consistent with hashStored
+	 * @param state The state to hash
+	 * @return The hash of the board
+	 */
+	private int hashBoard(SlidingGameState state)
+	{
+		long h = 0;
+		int size = state.getSize();
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+				h = h * 31 + (byte) state.board[i][j];
+		return mix(h);
+	}
+
+	/**
+	 * Doubles the table and reinserts every stored key
+	 */
+	private void rehash()
+	{
+		table = new int[table.length * 2];
+		int mask = table.length - 1;
+		for (int index = 0; index < count; index++)
+		{
+			int slot = hashStored(index) & mask;
+			while (table[slot] != EMPTY)
+				slot = (slot + 1) & mask;
+			table[slot] = index + 1;
+		}
+	}
+
+	/**
+	 * Spreads the bits of a key so that nearby boards land in distant slots
+	 * @param key The value to mix
+	 * @return A well distributed hash
+	 */
+	static int mix(long key)
+	{
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32));
+	}
+
+	/**
+	 * Smallest power of two table that keeps the load factor under one half
+	 * @param capacity Number of keys to hold
+	 * @return The table length
+	 */
+	private static int tableSizeFor(int capacity)
+	{
+		int n = Integer.highestOneBit(capacity * 2 - 1) << 1;
+		return Math.max(n, 32);
+	}
+}
@@ -0,0 +1,236 @@
+package slidinggame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Level-synchronous breadth-first search that expands each layer on a
+ * fork-join pool. Workers work directly on nibble-packed boards, dedup
+ * through a lock-free visited table and write successors into their own
+ * buffers, which are joined into the next layer. The first layer holding the
+ * winning state gives a shortest solution. Boards larger than 4x4 fall back
+ * to the sequential BreadthFirstSolver.
+ */
+public class ParallelBreadthFirstSolver implements SlidingGameSolver {
+
+	/** Frontier slices smaller than this are expanded without splitting further */
+	private static final int CHUNK = 4096;
+
+	/** Boards a worker expands between checks for cancellation and the deadline */
+	private static final int POLL_INTERVAL = 512;
+
+	/** Pool that expands the layers */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructor, uses one worker per available core
+	 */
+	public ParallelBreadthFirstSolver()
+	{
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor
+	 * @param parallelism Number of worker threads
+	 */
+	public ParallelBreadthFirstSolver(int parallelism)
+	{
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	@Override
+	public boolean isOptimal()
+	{
+		return true;
+	}
+
+	@Override
+	public Direction[] solve(SlidingGameState start)
+	{
+		return solve(start, new SolverMetrics());
+	}
+
+	/**
+	 * Searches for a solution, counting work a whole layer at a time so
+	 * workers share no counters
+	 * @param start The state to solve from
+	 * @param metrics Filled in with expanded nodes and peaks as the search runs
+	 * @return The moves of the empty space in order, or null if there is no solution
+	 */
+	@Override
+	public Direction[] solve(SlidingGameState start, SolverMetrics metrics)
+	{
+		if (!start.isPackable())
+			return new BreadthFirstSolver().solve(start, metrics);
+		if (start.isWin())
+			return new Direction[0];
+		if (!start.isSolvable())
+			return null;
+
+		int size = start.getSize();
+		long goal = SlidingGameState.winningState(size).pack();
+		ConcurrentPackedStateSet visited = new ConcurrentPackedStateSet(1024);
+		List<Layer> layers = new ArrayList<>();
+		Layer frontier = new Layer(new long[] {start.pack()}, new int[] {-1}, new byte[1], 1);
+		visited.add(frontier.states[0]);
+		layers.add(frontier);
+		long stored = 1;
+		// Every layer keeps its boards, parent indexes and moves; the visited table about 16 bytes a board
+		metrics.stateBytes(8 + 4 + 1 + 16);
+
+		while (frontier.count > 0)
+		{
+			// Each board has at most four successors; check the memory budget
+			// before making room for them rather than after
+			metrics.reserve(stored + frontier.count * 4L);
+			visited.reserve(stored, frontier.count * 4L);
+			Layer next = pool.invoke(new Expand(frontier, 0, frontier.count, size, visited, metrics));
+			// Workers stop part way through on cancellation or the deadline
+			metrics.checkNow();
+			stored += next.count;
+			layers.add(next);
+			metrics.frontier(next.count);
+			metrics.visited(stored);
+			metrics.expanded(frontier.count);
+			for (int i = 0; i < next.count; i++)
+				if (next.states[i] == goal)
+					return rebuild(layers, i);
+			frontier = next;
+		}
+		return null;
+	}
+
+	/**
+	 * Shuts down the worker threads
+	 */
+	public void shutdown()
+	{
+		pool.shutdown();
+	}
+
+	/**
+	 * Follows parent indexes back through the layers
+	 * @param layers Every layer from the start to the one holding the goal
+	 * @param index Index of the goal in the last layer
+	 * @return The moves from the start to the goal
+	 */
+	private static Direction[] rebuild(List<Layer> layers, int index)
+	{
+		Direction[] moves = new Direction[layers.size() - 1];
+		for (int depth = layers.size() - 1; depth > 0; depth--)
+		{
+			Layer layer = layers.get(depth);
+			moves[depth - 1] = Direction.ALL[layer.moves[index]];
+			index = layer.parents[index];
+		}
+		return moves;
+	}
+
+	/**
+	 * One BFS layer: packed boards with the index of each parent in the
+	 * previous layer and the move that reached it
+	 */
+	private static class Layer {
+		final long[] states;
+		final int[] parents;
+		final byte[] moves;
+		final int count;
+
+		Layer(long[] newStates, int[] newParents, byte[] newMoves, int newCount)
+		{
+			states = newStates;
+			parents = newParents;
+			moves = newMoves;
+			count = newCount;
+		}
+
+		/**
+		 * Joins two layers produced by neighbouring slices
+		 */
+		static Layer concat(Layer first, Layer second)
+		{
+			int total = first.count + second.count;
+			long[] states = Arrays.copyOf(first.states, total);
+			int[] parents = Arrays.copyOf(first.parents, total);
+			byte[] moves = Arrays.copyOf(first.moves, total);
+			System.arraycopy(second.states, 0, states, first.count, second.count);
+			System.arraycopy(second.parents, 0, parents, first.count, second.count);
+			System.arraycopy(second.moves, 0, moves, first.count, second.count);
+			return new Layer(states, parents, moves, total);
+		}
+	}
+
+	/**
+	 * Expands a slice of the frontier into a private buffer, splitting large
+	 * slices across the pool
+	 */
+	private static class Expand extends RecursiveTask<Layer> {
+		private static final long serialVersionUID = 1L;
+
+		private final transient Layer frontier;
+		private final int from;
+		private final int to;
+		private final int size;
+		private final transient ConcurrentPackedStateSet visited;
+		private final transient SolverMetrics metrics;
+
+		Expand(Layer newFrontier, int newFrom, int newTo, int newSize, ConcurrentPackedStateSet newVisited,
+				SolverMetrics newMetrics)
+		{
+			frontier = newFrontier;
+			from = newFrom;
+			to = newTo;
+			size = newSize;
+			visited = newVisited;
+			metrics = newMetrics;
+		}
+
+		@Override
+		protected Layer compute()
+		{
+			if (to - from > CHUNK)
+			{
+				int mid = (from + to) >>> 1;
+				Expand left = new Expand(frontier, from, mid, size, visited, metrics);
+				left.fork();
+				Layer right = new Expand(frontier, mid, to, size, visited, metrics).compute();
+				return Layer.concat(left.join(), right);
+			}
+			int capacity = (to - from) * 3 + 1;
+			long[] states = new long[capacity];
+			int[] parents = new int[capacity];
+			byte[] moves = new byte[capacity];
+			int count = 0;
+			int cells = size * size;
+			for (int node = from; node < to; node++)
+			{
+				// The layer is thrown away if the solve stops, so stop filling it
+				if ((node - from) % POLL_INTERVAL == 0 && metrics.stopRequested())
+					break;
+				long key = frontier.states[node];
+				int blank = PackedBoards.blankOf(key, cells);
+				for (Direction move : Direction.ALL)
+				{
+					long child = PackedBoards.slide(key, size, blank, move);
+					if (child == 0 || !visited.add(child))
+						continue;
+					if (count == states.length)
+					{
+						states = Arrays.copyOf(states, count * 2);
+						parents = Arrays.copyOf(parents, count * 2);
+						moves = Arrays.copyOf(moves, count * 2);
+					}
+					states[count] = child;
+					parents[count] = node;
+					moves[count] = (byte) move.ordinal();
+					count++;
+				}
+			}
+			return new Layer(states, parents, moves, count);
+		}
+	}
+}
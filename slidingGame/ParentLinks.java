@@ -0,0 +1,100 @@
+package slidinggame;
+
+import java.util.Arrays;
+
+/**
+ * Parent pointers for search nodes that are numbered densely from zero. Each
+ * node stores only the index it was reached from and the move that reached
+ * it, so a path is rebuilt once after the goal is found.
+ */
+class ParentLinks {
+
+	/** Parent index of each node, -1 for a root */
+	private int[] parent;
+
+	/** Direction ordinal of the move that reached each node */
+	private byte[] move;
+
+	/**
+	 * Constructor
+	 * @param expected Number of nodes expected, used for the initial capacity
+	 */
+	public ParentLinks(int expected)
+	{
+		parent = new int[Math.max(16, expected)];
+		move = new byte[parent.length];
+	}
+
+	/**
+	 * Records a root node, which has no parent
+	 * @param index Index of the node
+	 */
+	public void setRoot(int index)
+	{
+		ensureCapacity(index);
+		parent[index] = -1;
+	}
+
+	/**
+	 * Records how a node was reached
+	 * @param index Index of the node
+	 * @param parentIndex Index of the node it was reached from
+	 * @param direction The move that reached it
+	 */
+	public void set(int index, int parentIndex, Direction direction)
+	{
+		ensureCapacity(index);
+		parent[index] = parentIndex;
+		move[index] = (byte) direction.ordinal();
+	}
+
+	/**
+	 * Getter for a node's parent
+	 * @param index Index of the node
+	 * @return Index of the parent, -1 for a root
+	 */
+	public int getParent(int index)
+	{
+		return parent[index];
+	}
+
+	/**
+	 * Getter for the move that reached a node
+	 * @param index Index of the node, must not be a root
+	 * @return The move from the parent to this node
+	 */
+	public Direction getMove(int index)
+	{
+		return Direction.ALL[move[index]];
+	}
+
+	/**
+	 * Follows parent pointers back from a node to its root
+	 * @param index Index of the node the path ends at
+	 * @return The moves from the root to the node, in order
+	 */
+	public Direction[] pathTo(int index)
+	{
+		int length = 0;
+		for (int node = index; parent[node] >= 0; node = parent[node])
+			length++;
+		Direction[] moves = new Direction[length];
+		for (int node = index; parent[node] >= 0; node = parent[node])
+			moves[--length] = Direction.ALL[move[node]];
+		return moves;
+	}
+
+	/**
+	 * Grows the arrays so index is in range
+	 * @param index Index about to be written
+	 */
+	private void ensureCapacity(int index)
+	{
+		if (index >= parent.length)
+		{
+			int capacity = Math.max(index + 1, parent.length * 2);
+			parent = Arrays.copyOf(parent, capacity);
+			move = Arrays.copyOf(move, capacity);
+		}
+	}
+}
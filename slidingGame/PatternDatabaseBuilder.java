@@ -0,0 +1,290 @@
+package slidinggame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Builds disjoint additive pattern databases and writes them to a binary file
+ * that PatternDatabaseHeuristic maps into memory. Each pattern database holds,
+ * for every placement of its tiles, the fewest moves of those tiles needed to
+ * bring them home. Moves of other tiles are free, so the values of disjoint
+ * patterns can be added and still never overestimate.
+ */
+public class PatternDatabaseBuilder {
+
+	/** First four bytes of a pattern database file, "SPDB" */
+	static final int MAGIC = 0x53504442;
+
+	/** File format version */
+	static final int VERSION = 1;
+
+	/** Value of a table entry that has not been reached */
+	private static final int UNSEEN = 0xFF;
+
+	/** Bits per cell position in a packed search entry */
+	private static final int POSITION_BITS = 6;
+
+	/** The 6-6-3 partition of the 15-puzzle */
+	public static final int[][] PARTITION_4X4_663 = {
+			{1, 5, 6, 9, 10, 13},
+			{7, 8, 11, 12, 14, 15},
+			{2, 3, 4}};
+
+	/** The 5-5-5 partition of the 15-puzzle, quicker to build than 6-6-3 */
+	public static final int[][] PARTITION_4X4_555 = {
+			{1, 2, 3, 5, 6},
+			{4, 7, 8, 11, 12},
+			{9, 10, 13, 14, 15}};
+
+	/**
+	 * Builds every pattern in a partition and writes them to a file
+	 * @param file Where to write the database
+	 * @param size Dimension of the board
+	 * @param partition Disjoint groups of tile numbers
+	 * @throws IOException If the file cannot be written
+	 */
+	public static void write(Path file, int size, int[][] partition) throws IOException
+	{
+		validate(size, partition);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(size);
+			out.writeInt(partition.length);
+			for (int[] pattern : partition)
+			{
+				out.writeInt(pattern.length);
+				for (int tile : pattern)
+					out.writeInt(tile);
+			}
+			for (int[] pattern : partition)
+				out.write(build(size, pattern));
+		}
+	}
+
+	/**
+	 * Builds the table for one pattern with a 0-1 breadth-first search
+	 * backwards from the goal over (pattern tile positions, blank position)
+	 * @param size Dimension of the board
+	 * @param pattern Tile numbers in the pattern
+	 * @return The fewest pattern tile moves for every ranked placement
+	 */
+	static byte[] build(int size, int[] pattern)
+	{
+		int cells = size * size;
+		int k = pattern.length;
+		int placements = (int) placementCount(cells, k);
+		byte[] distance = new byte[Math.multiplyExact(placements, cells)];
+		Arrays.fill(distance, (byte) UNSEEN);
+
+		int[] positions = new int[k];
+		for (int t = 0; t < k; t++)
+			positions[t] = pattern[t] - 1;
+		long goal = encode(positions, cells - 1);
+		distance[rank(positions, cells) * cells + cells - 1] = 0;
+
+		LongList level = new LongList();
+		level.add(goal);
+		int[] owner = new int[cells];
+		for (int d = 0; level.size() > 0; d++)
+		{
+			LongList next = new LongList();
+			// The level grows while it is scanned: free moves stay at distance d
+			for (int e = 0; e < level.size(); e++)
+			{
+				long entry = level.get(e);
+				int blank = decode(entry, positions);
+				int index = rank(positions, cells) * cells + blank;
+				if ((distance[index] & 0xFF) != d)
+					continue;
+				Arrays.fill(owner, -1);
+				for (int t = 0; t < k; t++)
+					owner[positions[t]] = t;
+				int row = blank / size;
+				int col = blank % size;
+				for (Direction move : Direction.ALL)
+				{
+					int r = row + move.getRowOffset();
+					int c = col + move.getColOffset();
+					if (r < 0 || r >= size || c < 0 || c >= size)
+						continue;
+					int target = r * size + c;
+					int tile = owner[target];
+					if (tile < 0)
+					{
+						// A tile outside the pattern moves: no cost
+						int child = rank(positions, cells) * cells + target;
+						if ((distance[child] & 0xFF) > d)
+						{
+							distance[child] = (byte) d;
+							level.add(encode(positions, target));
+						}
+					}
+					else
+					{
+						// A pattern tile slides into the blank: one move
+						positions[tile] = blank;
+						int child = rank(positions, cells) * cells + target;
+						if ((distance[child] & 0xFF) == UNSEEN)
+						{
+							distance[child] = (byte) (d + 1);
+							next.add(encode(positions, target));
+						}
+						positions[tile] = target;
+					}
+				}
+			}
+			level = next;
+		}
+
+		// The heuristic does not know where the blank is, so take the best blank position
+		byte[] table = new byte[placements];
+		for (int p = 0; p < placements; p++)
+		{
+			int best = UNSEEN;
+			for (int blank = 0; blank < cells; blank++)
+				best = Math.min(best, distance[p * cells + blank] & 0xFF);
+			table[p] = (byte) best;
+		}
+		return table;
+	}
+
+	/**
+	 * Dense rank of the positions of k distinct tiles among cells squares,
+	 * in the range [0, cells! / (cells - k)!)
+	 * @param positions Cell of each tile in pattern order
+	 * @param cells Number of squares on the board
+	 * @return The rank
+	 */
+	static int rank(int[] positions, int cells)
+	{
+		int index = 0;
+		for (int t = 0; t < positions.length; t++)
+		{
+			int smaller = 0;
+			for (int u = 0; u < t; u++)
+				if (positions[u] < positions[t])
+					smaller++;
+			index = index * (cells - t) + positions[t] - smaller;
+		}
+		return index;
+	}
+
+	/**
+	 * Number of ways to place k distinct tiles on cells squares
+	 * @param cells Number of squares on the board
+	 * @param k Number of tiles
+	 * @return cells! / (cells - k)!
+	 */
+	static long placementCount(int cells, int k)
+	{
+		long count = 1;
+		for (int t = 0; t < k; t++)
+			count *= cells - t;
+		return count;
+	}
+
+	/**
+	 * Checks that a partition is usable
+	 * @param size Dimension of the board
+	 * @param partition Disjoint groups of tile numbers
+	 */
+	private static void validate(int size, int[][] partition)
+	{
+		int cells = size * size;
+		if (cells > 1 << POSITION_BITS)
+			throw new IllegalArgumentException("Board is too large for a pattern database");
+		boolean[] used = new boolean[cells];
+		for (int[] pattern : partition)
+		{
+			if (pattern.length == 0 || pattern.length >= 64 / POSITION_BITS)
+				throw new IllegalArgumentException("Patterns must have between 1 and 9 tiles");
+			if (placementCount(cells, pattern.length) * cells > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("Pattern of " + pattern.length + " tiles is too large to build");
+			for (int tile : pattern)
+			{
+				if (tile < 1 || tile >= cells)
+					throw new IllegalArgumentException("No tile " + tile + " on a board of size " + size);
+				if (used[tile])
+					throw new IllegalArgumentException("Tile " + tile + " is in more than one pattern");
+				used[tile] = true;
+			}
+		}
+	}
+
+	/**
+	 * Packs pattern tile positions and the blank position into a long
+	 * @param positions Cell of each pattern tile
+	 * @param blank Cell of the blank
+	 * @return The packed entry
+	 */
+	private static long encode(int[] positions, int blank)
+	{
+		long entry = blank;
+		for (int position : positions)
+			entry = (entry << POSITION_BITS) | position;
+		return entry;
+	}
+
+	/**
+	 * Unpacks an entry made by encode
+	 * @param entry The packed entry
+	 * @param positions Filled with the cell of each pattern tile
+	 * @return The cell of the blank
+	 */
+	private static int decode(long entry, int[] positions)
+	{
+		int mask = (1 << POSITION_BITS) - 1;
+		for (int t = positions.length - 1; t >= 0; t--)
+		{
+			positions[t] = (int) (entry & mask);
+			entry >>>= POSITION_BITS;
+		}
+		return (int) entry;
+	}
+
+	/**
+	 * Growable list of primitive longs
+	 */
+	private static class LongList {
+		private long[] values = new long[1024];
+		private int count;
+
+		void add(long value)
+		{
+			if (count == values.length)
+				values = Arrays.copyOf(values, count * 2);
+			values[count++] = value;
+		}
+
+		long get(int index)
+		{
+			return values[index];
+		}
+
+		int size()
+		{
+			return count;
+		}
+	}
+
+	/**
+	 * Builds a database file offline
+	 * @param args Output file, then optionally "555" for the smaller partition
+	 * @throws IOException If the file cannot be written
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		Path file = Paths.get(args.length > 0 ? args[0] : "puzzle4x4.pdb");
+		int[][] partition = args.length > 1 && args[1].equals("555") ? PARTITION_4X4_555 : PARTITION_4X4_663;
+		long start = System.currentTimeMillis();
+		write(file, 4, partition);
+		System.out.println("Wrote " + file + " in " + (System.currentTimeMillis() - start) + " ms");
+	}
+}
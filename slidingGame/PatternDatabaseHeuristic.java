@@ -0,0 +1,226 @@
+package slidinggame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Disjoint additive pattern database heuristic. The tables are mapped
+ * read-only from a file written by PatternDatabaseBuilder, so nothing is
+ * rebuilt at startup and every process using the same file shares one copy in
+ * the page cache.
+ *
+ * Depth-first searches should use track, which keeps each tile's cell and
+ * looks up only the pattern of the tile that moved, instead of rescanning the
+ * board and every pattern for each estimate.
+ */
+public class PatternDatabaseHeuristic implements SlidingGameHeuristic {
+
+	/** Dimension of the board the tables were built for */
+	private final int size;
+
+	/** Tile numbers of each pattern */
+	private final int[][] patterns;
+
+	/** Absolute offset of each pattern's table in the mapped file */
+	private final int[] offsets;
+
+	/** The mapped file */
+	private final ByteBuffer tables;
+
+	/**
+	 * Maps a pattern database file
+	 * @param file A file written by PatternDatabaseBuilder
+	 * @return The heuristic backed by that file
+	 * @throws IOException If the file cannot be read or is not a pattern database
+	 */
+	public static PatternDatabaseHeuristic load(Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Pattern database is too large to map: " + file);
+			// The mapping stays valid after the channel is closed
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new PatternDatabaseHeuristic(buffer, file);
+		}
+	}
+
+	/**
+	 * Constructor, reads the header of a mapped file
+	 * @param buffer The mapped file
+	 * @param file Name of the file, for error messages
+	 * @throws IOException If the header is not valid
+	 */
+	private PatternDatabaseHeuristic(ByteBuffer buffer, Path file) throws IOException
+	{
+		if (buffer.getInt(0) != PatternDatabaseBuilder.MAGIC || buffer.getInt(4) != PatternDatabaseBuilder.VERSION)
+			throw new IOException("Not a pattern database: " + file);
+		size = buffer.getInt(8);
+		patterns = new int[buffer.getInt(12)][];
+		int position = 16;
+		for (int p = 0; p < patterns.length; p++)
+		{
+			patterns[p] = new int[buffer.getInt(position)];
+			position += 4;
+			for (int t = 0; t < patterns[p].length; t++)
+			{
+				patterns[p][t] = buffer.getInt(position);
+				position += 4;
+			}
+		}
+		offsets = new int[patterns.length];
+		long offset = position;
+		for (int p = 0; p < patterns.length; p++)
+		{
+			offsets[p] = (int) offset;
+			offset += PatternDatabaseBuilder.placementCount(size * size, patterns[p].length);
+		}
+		if (offset != buffer.capacity())
+			throw new IOException("Pattern database is truncated: " + file);
+		tables = buffer;
+	}
+
+	/**
+	 * Getter for the board size the tables were built for
+	 * @return The dimension of the board
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+
+	@Override
+	public int estimate(SlidingGameState state)
+	{
+		if (state.getSize() != size)
+			throw new IllegalArgumentException("Pattern database was built for size " + size);
+		int cells = size * size;
+		int[] where = new int[cells];
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+				where[state.board[i][j]] = i * size + j;
+		int total = 0;
+		for (int p = 0; p < patterns.length; p++)
+		{
+			int[] positions = new int[patterns[p].length];
+			for (int t = 0; t < positions.length; t++)
+				positions[t] = where[patterns[p][t]];
+			total += lookup(p, positions);
+		}
+		return total;
+	}
+
+	@Override
+	public SlidingGameHeuristic track(SlidingGameState board)
+	{
+		if (board.getSize() != size)
+			throw new IllegalArgumentException("Pattern database was built for size " + size);
+		return new Tracker(board);
+	}
+
+	/**
+	 * Reads one pattern's table
+	 * @param p Index of the pattern
+	 * @param positions Cell of each of the pattern's tiles, in pattern order
+	 * @return The fewest moves of the pattern's tiles to put them in place
+	 */
+	private int lookup(int p, int[] positions)
+	{
+		return tables.get(offsets[p] + PatternDatabaseBuilder.rank(positions, size * size)) & 0xFF;
+	}
+
+	/**
+	 * Pattern database estimate of one board, kept up to date as it slides.
+	 * A move only changes the position of one tile, so only that tile's
+	 * pattern is looked up again.
+	 */
+	private class Tracker implements SlidingGameHeuristic {
+		/** Pattern each tile belongs to, -1 for tiles in none */
+		private final int[] patternOf;
+
+		/** Index of each tile within its pattern */
+		private final int[] slotOf;
+
+		/** Cell of each tile of each pattern, in pattern order */
+		private final int[][] positions;
+
+		/** Current table value of each pattern */
+		private final int[] values;
+
+		/** Sum of the values */
+		private int total;
+
+		Tracker(SlidingGameState board)
+		{
+			int cells = size * size;
+			patternOf = new int[cells];
+			slotOf = new int[cells];
+			Arrays.fill(patternOf, -1);
+			for (int p = 0; p < patterns.length; p++)
+				for (int t = 0; t < patterns[p].length; t++)
+				{
+					patternOf[patterns[p][t]] = p;
+					slotOf[patterns[p][t]] = t;
+				}
+			positions = new int[patterns.length][];
+			for (int p = 0; p < patterns.length; p++)
+				positions[p] = new int[patterns[p].length];
+			for (int i = 0; i < size; i++)
+				for (int j = 0; j < size; j++)
+				{
+					int tile = board.board[i][j];
+					if (patternOf[tile] >= 0)
+						positions[patternOf[tile]][slotOf[tile]] = i * size + j;
+				}
+			values = new int[patterns.length];
+			for (int p = 0; p < patterns.length; p++)
+			{
+				values[p] = lookup(p, positions[p]);
+				total += values[p];
+			}
+		}
+
+		@Override
+		public int estimate(SlidingGameState state)
+		{
+			return total;
+		}
+
+		@Override
+		public void slid(SlidingGameState board, Direction move)
+		{
+			follow(board, move);
+		}
+
+		@Override
+		public void unslid(SlidingGameState board, Direction move)
+		{
+			follow(board, move.opposite());
+		}
+
+		/**
+		 * Moves one tile within its pattern and looks that pattern up again
+		 * @param board The board, after the empty space moved
+		 * @param move The direction the empty space moved
+		 */
+		private void follow(SlidingGameState board, Direction move)
+		{
+			// The tile that moved now sits where the empty space was
+			int row = board.getEmptyRow() - move.getRowOffset();
+			int col = board.getEmptyColumn() - move.getColOffset();
+			int tile = board.board[row][col];
+			int p = patternOf[tile];
+			if (p < 0)
+				return;
+			positions[p][slotOf[tile]] = row * size + col;
+			int value = lookup(p, positions[p]);
+			total += value - values[p];
+			values[p] = value;
+		}
+	}
+}
@@ -1,4 +1,8 @@
 package slidinggame;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 
 public class PlaySlidingGame {
@@ -29,14 +33,36 @@ public class PlaySlidingGame {
 		int [][] array = {{1, 2, 3, 0},
 				{1, 2, 3, 4, 0, 5, 7, 8, 6},
 				{0, 3, 2, 1},
-				//{1, 2, 4, 5, 3, 6, 7, 8, 9, 10, 11, 0, 13, 14, 15, 12},
-				//{1, 7, 8, 2, 11, 3, 4, 15, 5, 12, 6, 14, 9, 13, 10, 0},
+				{1, 2, 4, 5, 3, 6, 7, 8, 9, 10, 11, 0, 13, 14, 15, 12},
+				{1, 7, 8, 2, 11, 3, 4, 15, 5, 12, 6, 14, 9, 13, 10, 0},
 				//{5, 1, 4, 2, 8, 3, 7, 6, 0}, 
 				
 				{1, 2, 4, 5, 3, 6, 7, 8, 0}, 
 				{1, 5, 2, 8, 3, 6, 4, 7, 0}, 
 				{1, 5, 2, 8, 7, 3, 4, 6, 0}, 
-				{2, 4, 3, 1, 0, 5, 7, 8, 6}};
+				{2, 4, 3, 1, 0, 5, 7, 8, 6},
+				{1, 2, 3, 4, 5, 6, 8, 7, 0},
+				{2, 1, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 0},
+				{6, 1, 2, 3, 5, 11, 7, 8, 4, 10, 0, 12, 13, 9, 15, 16, 17, 18, 14, 19, 21, 22, 23, 24, 20}};
+		// Use the pattern database for 4x4 boards if one has been built with PatternDatabaseBuilder,
+		// otherwise walking distance, whose small table is built in a fraction of a second
+		SlidingGameHeuristic largeBoardHeuristic = new WalkingDistanceHeuristic();
+		Path pdbFile = Paths.get("puzzle4x4.pdb");
+		if (Files.exists(pdbFile))
+		{
+			try {
+				largeBoardHeuristic = PatternDatabaseHeuristic.load(pdbFile);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		// 3x3 boards are answered from a precomputed distance table, saved after the first run
+		SlidingGameSolver smallBoardSolver = new BreadthFirstSolver();
+		try {
+			smallBoardSolver = DistanceTableSolver.loadOrBuild(Paths.get("puzzle3x3.dist"));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 		for (int i = 0; i < array.length; i++)
 		{
 			System.out.println("Run: " + i);
@@ -45,8 +71,24 @@ public class PlaySlidingGame {
 				SlidingGameState start = new SlidingGameState((int)Math.sqrt(array[i].length), array[i]);
 				System.out.println("Starting state: ");
 				System.out.println(start);
+				// Skip boards that can never be solved instead of searching half the state space
+				if (!start.isSolvable())
+				{
+					System.out.println("Unsolvable: tile parity does not match the goal\n");
+					continue;
+				}
 		
-				SlidingGamePlayer ai = new SlidingGamePlayer(start);
+				// Blind BFS is fine for tiny boards, larger ones need a table or an informed search
+				SlidingGameSolver solver;
+				if (start.getSize() < 3)
+					solver = new BreadthFirstSolver();
+				else if (start.getSize() == 3)
+					solver = smallBoardSolver;
+				else if (start.getSize() == 4)
+					solver = new IDAStarSolver(largeBoardHeuristic);
+				else // Optimal search is out of reach, take the best solution found in two seconds
+					solver = new AnytimeWeightedAStarSolver(new LinearConflictHeuristic(), 2000, 1 << 22);
+				SlidingGamePlayer ai = new SlidingGamePlayer(start, solver);
 
 				System.out.println(ai.planGame());
 			} 
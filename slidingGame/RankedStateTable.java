@@ -0,0 +1,64 @@
+package slidinggame;
+
+import java.util.Arrays;
+
+/**
+ * Visited-state table for boards small enough that every arrangement has a
+ * slot. Dedup is one bit test on the board's permutation rank, with no
+ * hashing; for 3x3 the whole bitset is 9! bits, about 45 KB. Ranks are kept
+ * in insertion order so stored states can be loaded back by index.
+ */
+class RankedStateTable implements StateTable {
+
+	/** Largest board that gets a dense bitset (16! bits would not fit in memory) */
+	static final int MAX_SIZE = 3;
+
+	/** One bit per permutation rank */
+	private final long[] seen;
+
+	/** Ranks of the stored states in insertion order */
+	private int[] ranks = new int[1024];
+
+	/** Number of states stored */
+	private int count;
+
+	/**
+	 * Constructor
+	 * @param size Dimension of the boards that will be stored
+	 */
+	public RankedStateTable(int size)
+	{
+		if (size > MAX_SIZE)
+			throw new IllegalArgumentException("Ranked tables only support boards up to " + MAX_SIZE + "x" + MAX_SIZE);
+		long permutations = 1;
+		for (int n = 2; n <= size * size; n++)
+			permutations *= n;
+		seen = new long[(int) ((permutations + 63) >>> 6)];
+	}
+
+	@Override
+	public int insert(SlidingGameState state)
+	{
+		int rank = (int) state.rank();
+		long bit = 1L << rank;
+		if ((seen[rank >>> 6] & bit) != 0)
+			return -1;
+		seen[rank >>> 6] |= bit;
+		if (count == ranks.length)
+			ranks = Arrays.copyOf(ranks, count * 2);
+		ranks[count] = rank;
+		return count++;
+	}
+
+	@Override
+	public void load(int index, SlidingGameState target)
+	{
+		target.unrank(ranks[index]);
+	}
+
+	@Override
+	public int size()
+	{
+		return count;
+	}
+}
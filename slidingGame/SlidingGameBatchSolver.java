@@ -0,0 +1,188 @@
+package slidinggame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Solves many puzzles concurrently. Every puzzle runs on its own virtual
+ * thread, a semaphore caps how many search at once, and solutions are shared
+ * through a SolutionCache so puzzles that pass through already solved states,
+ * or their mirrors, skip the search. Only solutions from optimal solvers are
+ * cached.
+ */
+public class SlidingGameBatchSolver implements AutoCloseable {
+
+	/** Creates a fresh solver for each puzzle, since solvers keep per-search state */
+	private final Function<SlidingGameState, SlidingGameSolver> solverFor;
+
+	/** Limits the number of searches running at once */
+	private final Semaphore permits;
+
+	/** Solutions shared between puzzles */
+	private final SolutionCache cache;
+
+	/** Creates the limits for each search, called as the search starts */
+	private final Supplier<SolveOptions> optionsFor;
+
+	/** Told the metrics of every search */
+	private final List<SolverListener> listeners = new CopyOnWriteArrayList<>();
+
+	/** Runs one virtual thread per puzzle */
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Constructor
+	 * @param newSolverFor Picks and creates the solver for a puzzle
+	 * @param parallelism Most puzzles searched at the same time
+	 * @param cacheCapacity Most states kept in the shared solution cache
+	 */
+	public SlidingGameBatchSolver(Function<SlidingGameState, SlidingGameSolver> newSolverFor, int parallelism,
+			int cacheCapacity)
+	{
+		this(newSolverFor, parallelism, new SolutionCache(cacheCapacity));
+	}
+
+	/**
+	 * Constructor for sharing an existing cache, such as one loaded with
+	 * SolutionCache.load so solutions from earlier runs are reused
+	 * @param newSolverFor Picks and creates the solver for a puzzle
+	 * @param parallelism Most puzzles searched at the same time
+	 * @param newCache The solution cache to read and fill
+	 */
+	public SlidingGameBatchSolver(Function<SlidingGameState, SlidingGameSolver> newSolverFor, int parallelism,
+			SolutionCache newCache)
+	{
+		this(newSolverFor, parallelism, newCache, SolveOptions::new);
+	}
+
+	/**
+	 * Constructor for searches with limits. Each search gets its own options,
+	 * created once it holds a permit, so a time limit counts from the start
+	 * of the search rather than from submission. A puzzle whose search hits
+	 * its limits completes with null, and listeners see why in its metrics.
+	 * @param newSolverFor Picks and creates the solver for a puzzle
+	 * @param parallelism Most puzzles searched at the same time
+	 * @param newCache The solution cache to read and fill
+	 * @param newOptionsFor Creates the deadline, node and memory limits of each search
+	 */
+	public SlidingGameBatchSolver(Function<SlidingGameState, SlidingGameSolver> newSolverFor, int parallelism,
+			SolutionCache newCache, Supplier<SolveOptions> newOptionsFor)
+	{
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		solverFor = newSolverFor;
+		permits = new Semaphore(parallelism);
+		cache = newCache;
+		optionsFor = newOptionsFor;
+	}
+
+	/**
+	 * Starts solving one puzzle
+	 * @param initialArray Initial configuration of tiles as a single array
+	 * @return Completes with the moves, or null if the puzzle cannot be solved
+	 *         or its search hit its limits
+	 */
+	public CompletableFuture<Direction[]> submit(int[] initialArray)
+	{
+		return CompletableFuture.supplyAsync(() -> solve(initialArray), executor);
+	}
+
+	/**
+	 * Starts solving every puzzle in a stream
+	 * @param puzzles Initial configurations of tiles
+	 * @return Completes with the results in stream order once all are solved
+	 */
+	public CompletableFuture<List<Direction[]>> solveAll(Stream<int[]> puzzles)
+	{
+		List<CompletableFuture<Direction[]>> futures = new ArrayList<>();
+		puzzles.forEach(puzzle -> futures.add(submit(puzzle)));
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+			List<Direction[]> results = new ArrayList<>(futures.size());
+			for (CompletableFuture<Direction[]> future : futures)
+				results.add(future.join());
+			return results;
+		});
+	}
+
+	/**
+	 * Starts solving every puzzle in a stream, reporting each as it finishes
+	 * @param puzzles Initial configurations of tiles
+	 * @param callback Called with each puzzle and its moves (null if unsolvable or stopped),
+	 *                 possibly from several threads at once
+	 * @return Completes once every callback has run
+	 */
+	public CompletableFuture<Void> solveAll(Stream<int[]> puzzles, BiConsumer<int[], Direction[]> callback)
+	{
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		puzzles.forEach(puzzle -> futures.add(submit(puzzle).thenAccept(moves -> callback.accept(puzzle, moves))));
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * Adds a listener for the metrics of every search. Puzzles answered from
+	 * the cache are not searched and are not reported.
+	 * @param listener Called from the puzzle's thread once its search finishes
+	 */
+	public void addListener(SolverListener listener)
+	{
+		listeners.add(listener);
+	}
+
+	/**
+	 * Getter for the shared cache
+	 * @return The solution cache
+	 */
+	public SolutionCache getCache()
+	{
+		return cache;
+	}
+
+	/**
+	 * Stops accepting puzzles and waits for running ones to finish
+	 */
+	@Override
+	public void close()
+	{
+		executor.close();
+	}
+
+	/**
+	 * Solves one puzzle on the calling virtual thread
+	 * @param initialArray Initial configuration of tiles as a single array
+	 * @return The moves, or null if the puzzle cannot be solved or its search
+	 *         hit its limits
+	 */
+	private Direction[] solve(int[] initialArray)
+	{
+		SlidingGameState start = new SlidingGameState((int) Math.sqrt(initialArray.length), initialArray);
+		if (!start.isSolvable())
+			return null;
+		Direction[] moves = cache.get(start);
+		if (moves != null)
+			return moves;
+		SlidingGameSolver solver;
+		permits.acquireUninterruptibly();
+		try
+		{
+			solver = solverFor.apply(start);
+			moves = SolveRunner.record(solver, start, new SolverMetrics(false, optionsFor.get()), listeners).getMoves();
+		}
+		finally
+		{
+			permits.release();
+		}
+		// A suboptimal path would be replayed for every puzzle that meets it
+		if (moves != null && solver.isOptimal())
+			cache.put(start, moves);
+		return moves;
+	}
+}
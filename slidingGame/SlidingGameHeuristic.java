@@ -0,0 +1,47 @@
+package slidinggame;
+
+/**
+ * An estimate of the number of moves left to win from a state. Informed
+ * solvers only return optimal solutions when the estimate never exceeds the
+ * true distance.
+ */
+public interface SlidingGameHeuristic {
+
+	/**
+	 * Estimates the moves remaining from a state
+	 * @param state The state to estimate
+	 * @return A lower bound on the number of moves to the winning state
+	 */
+	int estimate(SlidingGameState state);
+
+	/**
+	 * Prepares for a depth-first search that slides one board in place and
+	 * reports every slide and unslide through the returned estimator, so
+	 * heuristics with their own tables can update them incrementally instead
+	 * of rescanning the board for each estimate.
+	 * @param board The board the search will slide
+	 * @return An estimator for that board only; this heuristic by default
+	 */
+	default SlidingGameHeuristic track(SlidingGameState board)
+	{
+		return this;
+	}
+
+	/**
+	 * Called after the tracked board slid
+	 * @param board The tracked board
+	 * @param move The move just made
+	 */
+	default void slid(SlidingGameState board, Direction move)
+	{
+	}
+
+	/**
+	 * Called after the tracked board undid a slide
+	 * @param board The tracked board
+	 * @param move The move just undone
+	 */
+	default void unslid(SlidingGameState board, Direction move)
+	{
+	}
+}
@@ -1,52 +1,188 @@
 package slidinggame;
-import java.util.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class SlidingGamePlayer {
     private SlidingGameState state;
+    private SlidingGameSolver solver;
+    private final List<SolverListener> listeners = new CopyOnWriteArrayList<>();
+    private boolean timePhases;
+    private SolverMetrics lastMetrics;
 
     public SlidingGamePlayer(SlidingGameState newState) {
+        this(newState, new BreadthFirstSolver());
+    }
+
+    /**
+     * @param newState The state to solve from
+     * @param newSolver The search algorithm used by planGame
+     */
+    public SlidingGamePlayer(SlidingGameState newState, SlidingGameSolver newSolver) {
         state = newState;
+        solver = newSolver;
     }
 
     public String planGame() throws Exception {
+        return planGame(new SolveOptions());
+    }
+
+    /**
+     * Plans the game within a deadline, budget or cancellation token
+     * @param options Limits on the search
+     * @return The transcript, or why there is none
+     */
+    public String planGame(SolveOptions options) {
         if (state.isWin()) { // Already in a winning state
             return "This is already a winning state\n" + state.getSequence();
         }
 
-        Queue<SlidingGameState> queue = new LinkedList<>(); // Explore game states
-        Set<String> visitedStates = new HashSet<>(); // Track states by their string value
-
-        queue.add(state); // Add state to queue
-        visitedStates.add(state.toString()); 
-
-        int[][] moves = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; // Up, down, left, right
-
-        while (!queue.isEmpty()) {
-            SlidingGameState current = queue.poll();
-            // Check if current state is a win
-            if (current.isWin()) {
-                return "Solved in:\n" + current.getSequence();
-            }
-            // Otherwise generate all possible moves
-            for (int[] move : moves) {
-                int moveRow = move[0];
-                int moveCol = move[1];
-                // Check if move is valid
-                if (current.isValid(moveRow, moveCol)) {
-                	// If it is copy current state to new state
-                    SlidingGameState newState = new SlidingGameState(current);
-                    // Apply the move on the new state
-                    newState.moveToken(moveRow, moveCol);
-
-                    // track visited states and prevent loops
-                    if (!visitedStates.contains(newState.toString())) {
-                        queue.add(newState);
-                        visitedStates.add(newState.toString());
-                    }
-                }
-            }
+        SolveResult result = solve(options);
+        if (result.getStatus() == SolveResult.Status.SOLVED) {
+            StringBuilder text = new StringBuilder("Solved in:\n").append(state.getSequence());
+            for (String step : result.getSolution())
+                text.append(step);
+            return text.toString();
+        }
+
+        return describe(result.getStatus());
+    }
+
+    /**
+     * Writes the same text as planGame to a stream, rendering each board only
+     * when it is written, so the first move reaches the client as soon as the
+     * search finishes. The stream is flushed but not closed.
+     * @param out Where to write the plan
+     * @throws IOException If the stream cannot be written
+     */
+    public void planGame(OutputStream out) throws IOException {
+        planGame(out, new SolveOptions());
+    }
+
+    /**
+     * Streams the plan like planGame(OutputStream), within the given limits
+     * @param out Where to write the plan
+     * @param options Limits on the search
+     * @throws IOException If the stream cannot be written
+     */
+    public void planGame(OutputStream out, SolveOptions options) throws IOException {
+        if (state.isWin()) {
+            write(out, "This is already a winning state\n" + state.getSequence());
+            return;
+        }
+
+        SolveResult result = solve(options);
+        if (result.getStatus() == SolveResult.Status.SOLVED) {
+            write(out, "Solved in:\n" + state.getSequence());
+            result.getSolution().writeTo(out);
+            return;
+        }
+
+        write(out, describe(result.getStatus()));
+    }
+
+    /**
+     * Searches for a solution without rendering it
+     * @return The solution, or null if there is none
+     */
+    public SlidingGameSolution solve() {
+        return solve(new SolveOptions()).getSolution();
+    }
+
+    /**
+     * Searches for a solution within a deadline, budget or cancellation token.
+     * A search that hits a limit returns its status and its memory is free to
+     * collect; set a memory budget to keep a large search inside the heap.
+     * @param options Limits on the search
+     * @return The solution, or why the search ended without one
+     */
+    public SolveResult solve(SolveOptions options) {
+        // Every solve is measured; listeners and flight recordings see the result
+        lastMetrics = new SolverMetrics(timePhases, options);
+
+        // Half of all boards can never be solved, reject them before searching
+        if (!state.isSolvable()) {
+            return SolveRunner.unsolvable(solver, state, lastMetrics, listeners);
+        }
+        return SolveRunner.record(solver, state, lastMetrics, listeners);
+    }
+
+    /**
+     * @param listener Told the metrics of every solve this player runs
+     */
+    public void addListener(SolverListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener A listener added earlier
+     */
+    public void removeListener(SolverListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Turns on timing of generation, dedup and goal checks, which costs a few
+     * clock reads per node
+     * @param newTimePhases True to time phases in later solves
+     */
+    public void setTimePhases(boolean newTimePhases) {
+        timePhases = newTimePhases;
+    }
+
+    /**
+     * @return The metrics of the latest solve, or null before the first
+     */
+    public SolverMetrics getLastMetrics() {
+        return lastMetrics;
+    }
+
+    /**
+     * Enumerates every state reachable from the starting state with a
+     * disk-backed breadth-first search, for state spaces too large for memory.
+     * Calling again with the same directory resumes an interrupted run.
+     * Successors are sorted in a buffer of a quarter of the maximum heap.
+     * @param directory Working directory for the layer files
+     * @return Number of states at each distance from the starting state
+     * @throws IOException If the directory cannot be read or written
+     */
+    public long[] exploreOnDisk(Path directory) throws IOException {
+        long boards = Runtime.getRuntime().maxMemory() / 4 / Long.BYTES;
+        return exploreOnDisk(directory, (int) Math.max(1 << 16, Math.min(boards, 1 << 27)));
+    }
+
+    /**
+     * Enumerates every state reachable from the starting state on disk,
+     * with a chosen sort buffer
+     * @param directory Working directory for the layer files
+     * @param runCapacity Most boards sorted in memory at once, 8 bytes each;
+     *        larger buffers mean fewer runs to merge
+     * @return Number of states at each distance from the starting state
+     * @throws IOException If the directory cannot be read or written
+     */
+    public long[] exploreOnDisk(Path directory, int runCapacity) throws IOException {
+        return new ExternalBreadthFirstSearch(directory, state, runCapacity).run();
+    }
+
+    private static String describe(SolveResult.Status status) {
+        switch (status) {
+        case TIMED_OUT:
+            return "No solution found before the deadline";
+        case BUDGET_EXHAUSTED:
+            return "No solution found within the search budget";
+        case CANCELLED:
+            return "The search was cancelled";
+        default:
+            return "There is no solution";
         }
+    }
 
-        return "There is no solution";
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+        out.flush();
     }
 }
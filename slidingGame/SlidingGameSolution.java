@@ -0,0 +1,140 @@
+package slidinggame;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A solution kept as the starting board and a move array. The transcript of
+ * intermediate boards is only rendered on demand, one step at a time, so a
+ * long solution can be streamed to a client without ever holding all of its
+ * text in memory. Each step is rendered exactly as SlidingGameState.moveToken
+ * records it.
+ */
+public class SlidingGameSolution implements Iterable<String> {
+
+	/** Copy of the board the moves start from */
+	private final SlidingGameState start;
+
+	/** The moves of the empty space in order */
+	private final Direction[] moves;
+
+	/**
+	 * Constructor
+	 * @param newStart The board the moves start from, copied
+	 * @param newMoves The moves of the empty space in order
+	 */
+	public SlidingGameSolution(SlidingGameState newStart, Direction[] newMoves)
+	{
+		start = new SlidingGameState(newStart);
+		moves = newMoves;
+	}
+
+	/**
+	 * Getter for the moves
+	 * @return The moves of the empty space in order
+	 */
+	public Direction[] getMoves()
+	{
+		return moves.clone();
+	}
+
+	/**
+	 * Getter for the number of moves
+	 * @return The length of the solution
+	 */
+	public int getLength()
+	{
+		return moves.length;
+	}
+
+	/**
+	 * Iterates over the rendered steps, replaying one move per call
+	 * @return An iterator of step transcripts
+	 */
+	@Override
+	public Iterator<String> iterator()
+	{
+		return new Iterator<String>() {
+			private final SlidingGameState current = new SlidingGameState(start);
+			private final StringBuilder text = new StringBuilder();
+			private int step;
+
+			@Override
+			public boolean hasNext()
+			{
+				return step < moves.length;
+			}
+
+			@Override
+			public String next()
+			{
+				if (step == moves.length)
+					throw new NoSuchElementException();
+				text.setLength(0);
+				render(current, moves[step], start.getNumberMoves() + step + 1, text);
+				step++;
+				return text.toString();
+			}
+		};
+	}
+
+	/**
+	 * Lazily rendered steps
+	 * @return A sequential stream of step transcripts, one per move
+	 */
+	public Stream<String> steps()
+	{
+		return StreamSupport.stream(Spliterators.spliterator(iterator(), moves.length,
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Writes every step to a stream as UTF-8, rendering as it goes. The
+	 * stream is flushed but not closed.
+	 * @param out Where to write the transcript
+	 * @throws IOException If the stream cannot be written
+	 */
+	public void writeTo(OutputStream out) throws IOException
+	{
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		for (Iterator<String> steps = iterator(); steps.hasNext();)
+			writer.write(steps.next());
+		writer.flush();
+	}
+
+	/**
+	 * Applies one move and appends its transcript
+	 * @param board The board before the move, slid in place
+	 * @param move The move of the empty space
+	 * @param number Move number shown in the transcript
+	 * @param text Where to append the transcript
+	 */
+	private static void render(SlidingGameState board, Direction move, int number, StringBuilder text)
+	{
+		int oldI = board.getEmptyRow();
+		int oldJ = board.getEmptyColumn();
+		board.slide(move);
+		int newI = board.getEmptyRow();
+		int newJ = board.getEmptyColumn();
+		text.append("Move ").append(board.board[oldI][oldJ]).append(" at [").append(newI).append(",")
+				.append(newJ).append("] to [").append(oldI).append(",").append(oldJ).append("]\n");
+		int size = board.getSize();
+		for (int i = 0; i < size; i++)
+		{
+			for (int j = 0; j < size; j++)
+				text.append(board.board[i][j]).append('\t');
+			text.append('\n');
+		}
+		text.append("Number moves: ").append(number).append("\n");
+	}
+}
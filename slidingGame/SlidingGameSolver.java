@@ -0,0 +1,38 @@
+package slidinggame;
+
+/**
+ * A strategy for finding a sequence of moves that takes a sliding game from a
+ * starting state to the winning state checked by SlidingGameState.isWin.
+ */
+public interface SlidingGameSolver {
+
+	/**
+	 * Searches for a solution. The starting state is not modified.
+	 * @param start The state to solve from
+	 * @return The moves of the empty space in order, or null if there is no solution
+	 */
+	Direction[] solve(SlidingGameState start);
+
+	/**
+	 * Searches for a solution, counting the work done. Solvers that are not
+	 * instrumented leave the metrics untouched.
+	 * @param start The state to solve from
+	 * @param metrics Filled in with node counts and peaks as the search runs
+	 * @return The moves of the empty space in order, or null if there is no solution
+	 */
+	default Direction[] solve(SlidingGameState start, SolverMetrics metrics)
+	{
+		return solve(start);
+	}
+
+	/**
+	 * Whether every solution returned is a shortest one. Only solutions from
+	 * optimal solvers are shared through a SolutionCache, since a cached path
+	 * is replayed for every later puzzle that passes through it.
+	 * @return True if solutions are always optimal, false by default
+	 */
+	default boolean isOptimal()
+	{
+		return false;
+	}
+}
@@ -1,12 +1,15 @@
 package slidinggame;
 
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class SlidingGameState  {
 
 	/** The current board */
 	int [][] board;
 
-	/** String maintaining series of moves */
-	private String sequence;
+	/** Transcript of the series of moves */
+	private StringBuilder sequence;
 
 	/** Dimension of board */
 	private int size;
@@ -20,6 +23,49 @@ public class SlidingGameState  {
 	/** Number of moves made */
 	private int numberMoves;
 
+	/**
+	 * Legal moves of the empty space, indexed by its cell and then by the
+	 * previous move (NO_PREVIOUS for none), leaving out the move that would
+	 * undo the previous one. Shared by all boards of the same size.
+	 */
+	private Direction[][][] moveTable;
+
+	/** Sum over all tiles of the distance to their goal cell, maintained by every move */
+	private int manhattan;
+
+	/** Extra moves forced by reversed tiles in each row */
+	private int[] rowConflicts;
+
+	/** Extra moves forced by reversed tiles in each column */
+	private int[] columnConflicts;
+
+	/** Sum of rowConflicts and columnConflicts */
+	private int linearConflicts;
+
+	/** False after the board is overwritten in bulk, until the values above are recomputed */
+	private boolean heuristicsValid;
+
+	/** Second index into moveTable when there is no previous move */
+	private static final int NO_PREVIOUS = 4;
+
+	/** Move tables already built, by board size */
+	private static final ConcurrentHashMap<Integer, Direction[][][]> MOVE_TABLES = new ConcurrentHashMap<>();
+
+	/** Largest board whose tiles can be nibble-packed into a long */
+	public static final int PACKED_MAX_SIZE = 4;
+
+	/** Largest number of cells whose permutation rank fits in a long (20! < 2^63) */
+	private static final int MAX_RANKED_CELLS = 20;
+
+	/** n! for n up to MAX_RANKED_CELLS */
+	private static final long[] FACTORIALS = new long[MAX_RANKED_CELLS + 1];
+	static
+	{
+		FACTORIALS[0] = 1;
+		for (int n = 1; n <= MAX_RANKED_CELLS; n++)
+			FACTORIALS[n] = FACTORIALS[n - 1] * n;
+	}
+
 	/**
 	 * Method that returns true if the two boards are equal, false otherwise
 	 * @param inSG The game to compare to
@@ -62,6 +108,7 @@ public class SlidingGameState  {
 		setSize(newSize);
 		int index = 0;
 		board = new int[size][size];
+		moveTable = MOVE_TABLES.computeIfAbsent(size, SlidingGameState::buildMoveTable);
 		for (int i = 0; i < size; i++)
 			for (int j = 0; j < size; j++)
 			{
@@ -73,8 +120,24 @@ public class SlidingGameState  {
 				}
 				index++;
 			}
-		sequence = "";
+		sequence = new StringBuilder();
 		numberMoves = 0;
+		allocateHeuristics();
+		computeHeuristics();
+	}
+
+	/**
+	 * Creates the winning state checked by isWin: tiles 1 through N^2-1 in
+	 * order with the empty space in the bottom right corner
+	 * @param newSize Size of the board
+	 * @return A new solved state
+	 */
+	public static SlidingGameState winningState(int newSize)
+	{
+		int[] tiles = new int[newSize * newSize];
+		for (int index = 0; index < tiles.length - 1; index++)
+			tiles[index] = index + 1;
+		return new SlidingGameState(newSize, tiles);
 	}
 
 	/**
@@ -100,16 +163,120 @@ public class SlidingGameState  {
 			throw new Exception("You can only move in one direction at a time");
 		int newI = upDownMove + emptyI;
 		int newJ = leftRightMove + emptyJ;
-		board[emptyI][emptyJ] = board[newI][newJ];
-		board[newI][newJ] = 0;
+		int oldI = emptyI;
+		int oldJ = emptyJ;
+		moveEmptyTo(newI, newJ);
 		numberMoves++;
-		sequence += ("Move " + board[emptyI][emptyJ] + " at [" + newI + "," + 
-				newJ + "] to [" + emptyI + "," + emptyJ + "]\n");
-		sequence += toString();
-		sequence += ("Number moves: " + numberMoves + "\n");
+		sequence.append("Move ").append(board[oldI][oldJ]).append(" at [").append(newI).append(",")
+				.append(newJ).append("] to [").append(oldI).append(",").append(oldJ).append("]\n");
+		sequence.append(toString());
+		sequence.append("Number moves: ").append(numberMoves).append("\n");
+
+	}
+
+	/**
+	 * Slides the empty space one step in place, without validating the move or
+	 * recording it in the sequence. Used by the solvers.
+	 * @param direction The direction the empty space moves
+	 */
+	public void slide(Direction direction)
+	{
+		moveEmptyTo(emptyI + direction.getRowOffset(), emptyJ + direction.getColOffset());
+	}
+
+	/**
+	 * Moves the tile at a neighbouring cell into the empty space and keeps the
+	 * heuristic values up to date. Only one tile moves, so Manhattan distance
+	 * changes by one and only the two lines the tile moves between can change
+	 * their linear conflicts.
+	 * @param newI Row of the tile, which becomes the empty space
+	 * @param newJ Column of the tile, which becomes the empty space
+	 */
+	private void moveEmptyTo(int newI, int newJ)
+	{
+		int tile = board[newI][newJ];
+		int oldI = emptyI;
+		int oldJ = emptyJ;
+		board[oldI][oldJ] = tile;
+		board[newI][newJ] = 0;
 		emptyI = newI;
 		emptyJ = newJ;
+		if (!heuristicsValid)
+			return;
+		int goalI = (tile - 1) / size;
+		int goalJ = (tile - 1) % size;
+		manhattan += Math.abs(goalI - oldI) + Math.abs(goalJ - oldJ) - Math.abs(goalI - newI) - Math.abs(goalJ - newJ);
+		// A vertical move keeps the order of tiles in the column, a horizontal one in the row
+		if (oldI != newI)
+		{
+			if (goalI == oldI || goalI == newI)
+			{
+				updateRowConflicts(oldI);
+				updateRowConflicts(newI);
+			}
+		}
+		else if (goalJ == oldJ || goalJ == newJ)
+		{
+			updateColumnConflicts(oldJ);
+			updateColumnConflicts(newJ);
+		}
+	}
+
+	/**
+	 * Undoes a slide made in the given direction, restoring the board exactly
+	 * @param direction The direction passed to slide
+	 */
+	public void unslide(Direction direction)
+	{
+		slide(direction.opposite());
+	}
+
+	/**
+	 * The moves the empty space can make from where it is now, from a
+	 * precomputed table. The returned array is shared and must not be modified.
+	 * @param previous The move that reached this board, or null for none; its
+	 *                 reverse is left out so depth-first searches never undo a move
+	 * @return The legal moves
+	 */
+	public Direction[] legalMoves(Direction previous)
+	{
+		return moveTable[emptyI * size + emptyJ][previous == null ? NO_PREVIOUS : previous.ordinal()];
+	}
+
+	/**
+	 * Builds the legal move table for one board size
+	 * @param tableSize Dimension of the board
+	 * @return Legal moves by empty cell, then by previous move
+	 */
+	private static Direction[][][] buildMoveTable(int tableSize)
+	{
+		Direction[][][] table = new Direction[tableSize * tableSize][NO_PREVIOUS + 1][];
+		for (int cell = 0; cell < tableSize * tableSize; cell++)
+			for (int previous = 0; previous <= NO_PREVIOUS; previous++)
+			{
+				Direction[] moves = new Direction[4];
+				int count = 0;
+				for (Direction move : Direction.ALL)
+				{
+					int i = cell / tableSize + move.getRowOffset();
+					int j = cell % tableSize + move.getColOffset();
+					boolean undoes = previous != NO_PREVIOUS && move == Direction.ALL[previous].opposite();
+					if (i >= 0 && i < tableSize && j >= 0 && j < tableSize && !undoes)
+						moves[count++] = move;
+				}
+				table[cell][previous] = Arrays.copyOf(moves, count);
+			}
+		return table;
+	}
 
+	/**
+	 * Check if the empty space can slide in a direction
+	 * @param direction The direction to check
+	 * @return True if the move stays on the board, false otherwise
+	 */
+	public boolean isValid(Direction direction)
+	{
+		return isValid(direction.getRowOffset(), direction.getColOffset());
 	}
 
 	/**
@@ -124,9 +291,16 @@ public class SlidingGameState  {
 			for (int j = 0; j < size; j++)
 				board[i][j] = original.board[i][j];
 		emptyJ = original.emptyJ;
+		moveTable = original.moveTable;
 		emptyI = original.emptyI;
-		sequence = original.sequence;
+		sequence = new StringBuilder(original.sequence);
 		numberMoves = original.numberMoves;
+		allocateHeuristics();
+		manhattan = original.manhattan;
+		System.arraycopy(original.rowConflicts, 0, rowConflicts, 0, size);
+		System.arraycopy(original.columnConflicts, 0, columnConflicts, 0, size);
+		linearConflicts = original.linearConflicts;
+		heuristicsValid = original.heuristicsValid;
 	}
 
 	/**
@@ -135,6 +309,9 @@ public class SlidingGameState  {
 	 */
 	public boolean isWin()
 	{
+		// Every tile is home exactly when the Manhattan distance is zero
+		if (heuristicsValid)
+			return manhattan == 0;
 		int tileNumber = 1;
 		for (int i = 0; i < size; i++)
 		{
@@ -161,8 +338,368 @@ public class SlidingGameState  {
 	 */
 	public String getSequence()
 	{
-		return sequence;
+		return sequence.toString();
+
+	}
+
+	/**
+	 * Getter for the Manhattan distance, kept up to date as tiles move
+	 * @return Sum over all tiles of the row and column distance to their goal cell
+	 */
+	public int getManhattanDistance()
+	{
+		if (!heuristicsValid)
+			computeHeuristics();
+		return manhattan;
+	}
+
+	/**
+	 * Getter for the linear conflict penalty, kept up to date as tiles move.
+	 * Two tiles in their goal row (or column) in reversed order need two moves
+	 * beyond their Manhattan distance so one can step aside; each line adds two
+	 * moves per tile that must leave it, which is the number of its tiles that
+	 * belong to it minus the longest run already in increasing goal order.
+	 * @return Extra moves on top of the Manhattan distance
+	 */
+	public int getLinearConflicts()
+	{
+		if (!heuristicsValid)
+			computeHeuristics();
+		return linearConflicts;
+	}
+
+	/**
+	 * Allocates the per-line heuristic arrays
+	 */
+	private void allocateHeuristics()
+	{
+		rowConflicts = new int[size];
+		columnConflicts = new int[size];
+	}
 
+	/**
+	 * Recomputes every heuristic value from the whole board
+	 */
+	private void computeHeuristics()
+	{
+		manhattan = 0;
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+			{
+				int tile = board[i][j];
+				if (tile != 0)
+					manhattan += Math.abs((tile - 1) / size - i) + Math.abs((tile - 1) % size - j);
+			}
+		linearConflicts = 0;
+		heuristicsValid = true;
+		for (int line = 0; line < size; line++)
+		{
+			rowConflicts[line] = 0;
+			columnConflicts[line] = 0;
+			updateRowConflicts(line);
+			updateColumnConflicts(line);
+		}
+	}
+
+	/**
+	 * Recomputes the linear conflicts of one row
+	 * @param row The row to recompute
+	 */
+	private void updateRowConflicts(int row)
+	{
+		long tails = 0;
+		int count = 0;
+		for (int j = 0; j < size; j++)
+		{
+			int tile = board[row][j];
+			if (tile != 0 && (tile - 1) / size == row)
+			{
+				tails = extendRuns(tails, (tile - 1) % size);
+				count++;
+			}
+		}
+		int conflicts = 2 * (count - Long.bitCount(tails));
+		linearConflicts += conflicts - rowConflicts[row];
+		rowConflicts[row] = conflicts;
+	}
+
+	/**
+	 * Recomputes the linear conflicts of one column
+	 * @param col The column to recompute
+	 */
+	private void updateColumnConflicts(int col)
+	{
+		long tails = 0;
+		int count = 0;
+		for (int i = 0; i < size; i++)
+		{
+			int tile = board[i][col];
+			if (tile != 0 && (tile - 1) % size == col)
+			{
+				tails = extendRuns(tails, (tile - 1) / size);
+				count++;
+			}
+		}
+		int conflicts = 2 * (count - Long.bitCount(tails));
+		linearConflicts += conflicts - columnConflicts[col];
+		columnConflicts[col] = conflicts;
+	}
+
+	/**
+	 * One step of patience sorting for the longest strictly increasing run.
+	 * The tiles of a line that belong in it have distinct goals below the
+	 * board width, so the smallest last value of a run of each length fits in
+	 * a bitmask, and the number of bits set is the longest run so far. Boards
+	 * up to 64 wide only.
+	 * @param tails Smallest last value of a run of each length, as bits
+	 * @param value The next goal in the line
+	 * @return The tails once value has replaced the smallest tail above it
+	 */
+	private static long extendRuns(long tails, int value)
+	{
+		long above = tails & (-2L << value);
+		return (tails & ~Long.lowestOneBit(above)) | 1L << value;
+	}
+
+	/**
+	 * Checks whether the winning state can be reached at all. A move keeps
+	 * the parity of the number of tile inversions on odd-width boards, and
+	 * changes it together with the row of the empty space on even-width
+	 * boards, so exactly half of all arrangements are solvable.
+	 * @return True if the board is a valid arrangement that can be solved
+	 */
+	public boolean isSolvable()
+	{
+		int cells = size * size;
+		int[] tiles = new int[cells - 1];
+		boolean[] seen = new boolean[cells];
+		int count = 0;
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+			{
+				int tile = board[i][j];
+				if (tile < 0 || tile >= cells || seen[tile])
+					return false;
+				seen[tile] = true;
+				if (tile != 0)
+					tiles[count++] = tile;
+			}
+		long inversions = countInversions(tiles, new int[tiles.length], 0, tiles.length);
+		if (size % 2 == 1)
+			return inversions % 2 == 0;
+		int emptyRowFromBottom = size - emptyI;
+		return (inversions + emptyRowFromBottom) % 2 == 1;
+	}
+
+	/**
+	 * Counts pairs that are out of order with a merge sort, sorting the range
+	 * @param tiles The values to count, sorted on return
+	 * @param scratch Work space the same length as tiles
+	 * @param from First index of the range
+	 * @param to One past the last index of the range
+	 * @return The number of inversions in the range
+	 */
+	private static long countInversions(int[] tiles, int[] scratch, int from, int to)
+	{
+		if (to - from < 2)
+			return 0;
+		int mid = (from + to) >>> 1;
+		long inversions = countInversions(tiles, scratch, from, mid) + countInversions(tiles, scratch, mid, to);
+		int left = from;
+		int right = mid;
+		int out = from;
+		while (left < mid && right < to)
+		{
+			if (tiles[left] <= tiles[right])
+				scratch[out++] = tiles[left++];
+			else
+			{
+				// Every remaining tile on the left is larger than this one
+				inversions += mid - left;
+				scratch[out++] = tiles[right++];
+			}
+		}
+		while (left < mid)
+			scratch[out++] = tiles[left++];
+		while (right < to)
+			scratch[out++] = tiles[right++];
+		System.arraycopy(scratch, from, tiles, from, to - from);
+		return inversions;
+	}
+
+	/**
+	 * Getter for size
+	 * @return The dimension of the board
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Getter for the number of moves made with moveToken
+	 * @return The number of recorded moves
+	 */
+	public int getNumberMoves()
+	{
+		return numberMoves;
+	}
+
+	/**
+	 * Getter for the row of the empty space
+	 * @return Row number of the empty space
+	 */
+	public int getEmptyRow()
+	{
+		return emptyI;
+	}
+
+	/**
+	 * Getter for the column of the empty space
+	 * @return Column number of the empty space
+	 */
+	public int getEmptyColumn()
+	{
+		return emptyJ;
+	}
+
+	/**
+	 * Checks whether this board fits in a nibble-packed long
+	 * @return True if every tile fits in four bits, false otherwise
+	 */
+	public boolean isPackable()
+	{
+		return size <= PACKED_MAX_SIZE;
+	}
+
+	/**
+	 * Encodes the board as a long, four bits per cell in row-major order.
+	 * Only valid for boards up to 4x4.
+	 * @return The packed board
+	 */
+	public long pack()
+	{
+		long key = 0;
+		int shift = 0;
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+			{
+				key |= ((long) board[i][j]) << shift;
+				shift += 4;
+			}
+		return key;
+	}
+
+	/**
+	 * Overwrites the board with a packed encoding produced by pack()
+	 * @param key The packed board
+	 */
+	void unpack(long key)
+	{
+		heuristicsValid = false;
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+			{
+				board[i][j] = (int) (key & 0xF);
+				key >>>= 4;
+				if (board[i][j] == 0)
+				{
+					emptyI = i;
+					emptyJ = j;
+				}
+			}
+	}
+
+	/**
+	 * Overwrites the board with cells stored one byte each
+	 * @param cells Array holding the board in row-major order
+	 * @param offset Index of the first cell in the array
+	 */
+	void loadBytes(byte[] cells, int offset)
+	{
+		heuristicsValid = false;
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+			{
+				board[i][j] = cells[offset++] & 0xFF;
+				if (board[i][j] == 0)
+				{
+					emptyI = i;
+					emptyJ = j;
+				}
+			}
+	}
+
+	/**
+	 * Lehmer-code rank of the board as a permutation of 0..N^2-1 in row-major
+	 * order. Every arrangement gets a distinct rank in [0, (N^2)!), so ranks
+	 * can index dense tables directly. Only valid for boards up to 4x4.
+	 * @return The rank of the board
+	 */
+	public long rank()
+	{
+		int cells = size * size;
+		if (cells > MAX_RANKED_CELLS)
+			throw new IllegalStateException("Board is too large to rank in a long");
+		long rank = 0;
+		int used = 0;
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+			{
+				int tile = board[i][j];
+				// Number of smaller tiles that have not been placed yet
+				int smaller = tile - Integer.bitCount(used & ((1 << tile) - 1));
+				rank = rank * (cells - (i * size + j)) + smaller;
+				used |= 1 << tile;
+			}
+		return rank;
+	}
+
+	/**
+	 * Overwrites the board with the arrangement that has the given rank
+	 * @param rank A value returned by rank() for a board of this size
+	 */
+	public void unrank(long rank)
+	{
+		heuristicsValid = false;
+		int cells = size * size;
+		if (cells > MAX_RANKED_CELLS)
+			throw new IllegalStateException("Board is too large to rank in a long");
+		int used = 0;
+		for (int cell = 0; cell < cells; cell++)
+		{
+			// Digit for this cell in the factorial number system
+			long weight = FACTORIALS[cells - 1 - cell];
+			int digit = (int) (rank / weight);
+			rank -= digit * weight;
+			// The tile is the digit-th smallest that is still unused
+			int tile = 0;
+			for (int skip = digit; ; tile++)
+				if ((used & (1 << tile)) == 0 && skip-- == 0)
+					break;
+			used |= 1 << tile;
+			board[cell / size][cell % size] = tile;
+			if (tile == 0)
+			{
+				emptyI = cell / size;
+				emptyJ = cell % size;
+			}
+		}
+	}
+
+	/**
+	 * Encodes the board as one byte per cell in row-major order. This is the
+	 * fallback for boards too large to pack into a long.
+	 * @return The board as a byte array
+	 */
+	public byte[] toBytes()
+	{
+		byte[] cells = new byte[size * size];
+		int index = 0;
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+				cells[index++] = (byte) board[i][j];
+		return cells;
 	}
 
 	public String toString()
@@ -0,0 +1,189 @@
+package slidinggame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded least-recently-used cache of solved states, shared between solves.
+ * For every state on a solution it stores the remaining distance and the next
+ * move, so a later puzzle that starts anywhere on a cached path is answered by
+ * following those moves. Only boards that pack into a long are cached; a
+ * packed board also identifies its size, since every size leaves a different
+ * number of nibbles non-zero.
+ *
+ * States are keyed by their BoardSymmetry canonical key, with the next move
+ * stored in the canonical orientation, so a board and its mirror share one
+ * entry. The cache can be saved to a file and loaded again so solutions
+ * survive restarts.
+ */
+public class SolutionCache {
+
+	/** First four bytes of a saved cache, "SSOL" */
+	private static final int MAGIC = 0x53534F4C;
+
+	/** Canonical packed board to (distance << 8 | next move ordinal), oldest first */
+	private final LinkedHashMap<Long, Integer> entries;
+
+	/**
+	 * Constructor
+	 * @param capacity Most states kept before the least recently used are evicted
+	 */
+	public SolutionCache(int capacity)
+	{
+		entries = new LinkedHashMap<Long, Integer>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest)
+			{
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Records every state along a solution. The solution must be a shortest
+	 * one, since get replays it for any later state on the path.
+	 * @param start The state the solution starts from
+	 * @param moves The moves of the solution
+	 */
+	public void put(SlidingGameState start, Direction[] moves)
+	{
+		if (!start.isPackable())
+			return;
+		int size = start.getSize();
+		SlidingGameState current = new SlidingGameState(start);
+		synchronized (entries)
+		{
+			for (int step = 0; step < moves.length; step++)
+			{
+				long key = current.pack();
+				long mirrored = BoardSymmetry.transposeKey(key, size);
+				if (mirrored < key)
+					entries.put(mirrored, ((moves.length - step) << 8) | BoardSymmetry.transpose(moves[step]).ordinal());
+				else
+					entries.put(key, ((moves.length - step) << 8) | moves[step].ordinal());
+				current.slide(moves[step]);
+			}
+			entries.put(current.pack(), 0);
+		}
+	}
+
+	/**
+	 * Follows cached moves from a state to the winning state
+	 * @param start The state to look up
+	 * @return The cached moves, or null if the path is not fully cached
+	 */
+	public Direction[] get(SlidingGameState start)
+	{
+		if (!start.isPackable())
+			return null;
+		int size = start.getSize();
+		SlidingGameState current = new SlidingGameState(start);
+		synchronized (entries)
+		{
+			long key = current.pack();
+			long mirrored = BoardSymmetry.transposeKey(key, size);
+			Integer entry = entries.get(Math.min(key, mirrored));
+			if (entry == null)
+				return null;
+			Direction[] moves = new Direction[entry >>> 8];
+			for (int step = 0; step < moves.length; step++)
+			{
+				// A later link may have been evicted
+				if (entry == null || (entry >>> 8) != moves.length - step)
+					return null;
+				// Map a move stored for the mirror back to this board's orientation
+				Direction move = Direction.ALL[entry & 0xFF];
+				moves[step] = mirrored < key ? BoardSymmetry.transpose(move) : move;
+				current.slide(moves[step]);
+				key = current.pack();
+				mirrored = BoardSymmetry.transposeKey(key, size);
+				entry = entries.get(Math.min(key, mirrored));
+			}
+			return moves;
+		}
+	}
+
+	/**
+	 * Saves every cached state, least recently used first so loading keeps
+	 * the eviction order. The file is written in full and then renamed over
+	 * the old one.
+	 * @param file Where to save the cache
+	 * @throws IOException If the file cannot be written
+	 */
+	public void save(Path file) throws IOException
+	{
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)))
+		{
+			synchronized (entries)
+			{
+				out.writeInt(MAGIC);
+				out.writeInt(entries.size());
+				for (Map.Entry<Long, Integer> entry : entries.entrySet())
+				{
+					out.writeLong(entry.getKey());
+					out.writeInt(entry.getValue());
+				}
+			}
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a cache saved by save
+	 * @param file The cache file
+	 * @param capacity Most states kept; the oldest saved states are dropped if the file holds more
+	 * @return The loaded cache
+	 * @throws IOException If the file cannot be read or is not a saved cache
+	 */
+	public static SolutionCache load(Path file, int capacity) throws IOException
+	{
+		SolutionCache cache = new SolutionCache(capacity);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16)))
+		{
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a saved solution cache: " + file);
+			int count = in.readInt();
+			for (int i = 0; i < count; i++)
+			{
+				long key = in.readLong();
+				cache.entries.put(key, in.readInt());
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Loads a saved cache, or starts an empty one if the file does not exist
+	 * @param file The cache file
+	 * @param capacity Most states kept
+	 * @return The cache
+	 * @throws IOException If the file exists but cannot be read
+	 */
+	public static SolutionCache loadOrCreate(Path file, int capacity) throws IOException
+	{
+		return Files.exists(file) ? load(file, capacity) : new SolutionCache(capacity);
+	}
+
+	/**
+	 * Getter for the number of cached states
+	 * @return The number of states in the cache
+	 */
+	public int size()
+	{
+		synchronized (entries)
+		{
+			return entries.size();
+		}
+	}
+}
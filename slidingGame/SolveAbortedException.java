@@ -0,0 +1,33 @@
+package slidinggame;
+
+/**
+ * Thrown through a solver when its SolveOptions limits are reached. Unwinding
+ * the solver's stack drops every structure it built, and SolveRunner.record
+ * turns the exception into a SolveResult.
+ */
+class SolveAbortedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Why the solve stopped */
+	private final SolveResult.Status status;
+
+	/**
+	 * Constructor
+	 * @param newStatus Why the solve stopped
+	 */
+	SolveAbortedException(SolveResult.Status newStatus)
+	{
+		super(newStatus.toString(), null, false, false);
+		status = newStatus;
+	}
+
+	/**
+	 * Getter for the status
+	 * @return Why the solve stopped
+	 */
+	SolveResult.Status getStatus()
+	{
+		return status;
+	}
+}
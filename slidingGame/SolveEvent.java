@@ -0,0 +1,64 @@
+package slidinggame;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for one solve, so slow puzzles can be found in a
+ * production recording. Costs next to nothing unless a recording enables it.
+ */
+@Name("slidinggame.Solve")
+@Label("Puzzle Solve")
+@Category("Sliding Game")
+@Description("One sliding puzzle solve with its search metrics")
+class SolveEvent extends Event {
+
+	@Label("Solver")
+	String solver;
+
+	@Label("Board Size")
+	int size;
+
+	@Label("Status")
+	String status;
+
+	@Label("Solution Length")
+	@Description("Number of moves, -1 if no solution was found")
+	int moves;
+
+	@Label("Expanded")
+	long expanded;
+
+	@Label("Generated")
+	long generated;
+
+	@Label("Duplicates")
+	long duplicates;
+
+	@Label("Peak Frontier")
+	long peakFrontier;
+
+	@Label("Peak Visited")
+	long peakVisited;
+
+	@Label("Estimated Bytes")
+	@DataAmount
+	long estimatedBytes;
+
+	@Label("Generation Time")
+	@Timespan
+	long generationNanos;
+
+	@Label("Dedup Time")
+	@Timespan
+	long dedupNanos;
+
+	@Label("Goal Check Time")
+	@Timespan
+	long goalCheckNanos;
+}
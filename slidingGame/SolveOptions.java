@@ -0,0 +1,115 @@
+package slidinggame;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Limits on a single solve. A solve stops with a SolveResult status instead
+ * of a solution when its deadline passes, when it has expanded more nodes or
+ * holds more estimated bytes than allowed, or when it is cancelled through
+ * cancel() or by interrupting the solving thread. Limits are checked every
+ * thousand or so expansions, so a solve overshoots them by a few
+ * milliseconds at most, and everything the search held is released as it
+ * unwinds. A limit of zero means no limit; the defaults set none.
+ */
+public class SolveOptions {
+
+	/** Latest time to stop, or null for none */
+	private Instant deadline;
+
+	/** Most nodes to expand, 0 for no limit */
+	private long maxNodes;
+
+	/** Most estimated bytes the search may hold, 0 for no limit */
+	private long maxBytes;
+
+	/** Set by cancel, read by the solving thread */
+	private volatile boolean cancelled;
+
+	/**
+	 * Setter for the deadline
+	 * @param newDeadline Wall-clock time after which the solve stops, or null for none
+	 * @return These options
+	 */
+	public SolveOptions setDeadline(Instant newDeadline)
+	{
+		deadline = newDeadline;
+		return this;
+	}
+
+	/**
+	 * Sets the deadline to a time from now
+	 * @param limit Time allowed, starting now
+	 * @return These options
+	 */
+	public SolveOptions setTimeLimit(Duration limit)
+	{
+		return setDeadline(Instant.now().plus(limit));
+	}
+
+	/**
+	 * Setter for the node budget
+	 * @param newMaxNodes Most nodes to expand, 0 for no limit
+	 * @return These options
+	 */
+	public SolveOptions setMaxNodes(long newMaxNodes)
+	{
+		maxNodes = newMaxNodes;
+		return this;
+	}
+
+	/**
+	 * Setter for the memory budget, compared with SolverMetrics.getEstimatedBytes
+	 * @param newMaxBytes Most bytes the search's own structures may hold, 0 for no limit
+	 * @return These options
+	 */
+	public SolveOptions setMaxBytes(long newMaxBytes)
+	{
+		maxBytes = newMaxBytes;
+		return this;
+	}
+
+	/**
+	 * Asks a running solve to stop. Safe to call from any thread.
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+	}
+
+	/**
+	 * Getter for the deadline
+	 * @return The deadline, or null for none
+	 */
+	public Instant getDeadline()
+	{
+		return deadline;
+	}
+
+	/**
+	 * Getter for the node budget
+	 * @return Most nodes to expand, 0 for no limit
+	 */
+	public long getMaxNodes()
+	{
+		return maxNodes;
+	}
+
+	/**
+	 * Getter for the memory budget
+	 * @return Most estimated bytes, 0 for no limit
+	 */
+	public long getMaxBytes()
+	{
+		return maxBytes;
+	}
+
+	/**
+	 * Checks whether cancel has been called
+	 * @return True once cancelled
+	 */
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+}
@@ -0,0 +1,75 @@
+package slidinggame;
+
+/**
+ * Outcome of a solve run with SolveOptions: whether it found a solution, and
+ * if not, why it stopped.
+ */
+public class SolveResult {
+
+	/** How a solve ended */
+	public enum Status {
+		/** A solution was found */
+		SOLVED,
+		/** The board can never reach the winning state */
+		UNSOLVABLE,
+		/** The deadline passed first */
+		TIMED_OUT,
+		/** The node or memory budget ran out first, or the solver gave up within its own limits */
+		BUDGET_EXHAUSTED,
+		/** The solve was cancelled or its thread interrupted */
+		CANCELLED
+	}
+
+	private final Status status;
+	private final SlidingGameSolution solution;
+	private final SolverMetrics metrics;
+
+	/**
+	 * Constructor
+	 * @param newStatus How the solve ended
+	 * @param newSolution The solution, null unless solved
+	 * @param newMetrics The work done before the solve ended
+	 */
+	public SolveResult(Status newStatus, SlidingGameSolution newSolution, SolverMetrics newMetrics)
+	{
+		status = newStatus;
+		solution = newSolution;
+		metrics = newMetrics;
+	}
+
+	/**
+	 * Getter for the status
+	 * @return How the solve ended
+	 */
+	public Status getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * Getter for the solution
+	 * @return The solution, or null unless the status is SOLVED
+	 */
+	public SlidingGameSolution getSolution()
+	{
+		return solution;
+	}
+
+	/**
+	 * Getter for the moves
+	 * @return The moves of the solution, or null unless the status is SOLVED
+	 */
+	public Direction[] getMoves()
+	{
+		return solution == null ? null : solution.getMoves();
+	}
+
+	/**
+	 * Getter for the metrics
+	 * @return The work done before the solve ended
+	 */
+	public SolverMetrics getMetrics()
+	{
+		return metrics;
+	}
+}
@@ -0,0 +1,105 @@
+package slidinggame;
+
+/**
+ * Runs solves for the player and the batch solver, turning each into a
+ * SolveResult and reporting it to listeners and, through a SolveEvent, to the
+ * flight recorder.
+ */
+final class SolveRunner {
+
+	private SolveRunner()
+	{
+	}
+
+	/**
+	 * Runs a solver with metrics, reporting the result to listeners and, when
+	 * enabled, to the flight recorder. A solve stopped by its SolveOptions
+	 * limits ends with the matching status; its search structures are
+	 * unreachable by the time the result is built. Running out of heap is not
+	 * caught, since other threads may have failed and shared state may be half
+	 * updated; the memory budget is what keeps a solve inside the heap.
+	 * @param solver The solver to run
+	 * @param start The state to solve from
+	 * @param metrics Filled in by the solver, enforcing any limits it was created with
+	 * @param listeners Told about the solve once it finishes
+	 * @return How the solve ended
+	 */
+	static SolveResult record(SlidingGameSolver solver, SlidingGameState start, SolverMetrics metrics,
+			Iterable<SolverListener> listeners)
+	{
+		SolveEvent event = new SolveEvent();
+		event.begin();
+		metrics.begin();
+		Direction[] moves = null;
+		SolveResult.Status status;
+		try
+		{
+			moves = solver.solve(start, metrics);
+			if (moves != null)
+				status = SolveResult.Status.SOLVED;
+			else // Complete solvers only fail on unsolvable boards; others gave up within their own limits
+				status = start.isSolvable() ? SolveResult.Status.BUDGET_EXHAUSTED : SolveResult.Status.UNSOLVABLE;
+		}
+		catch (SolveAbortedException e)
+		{
+			status = e.getStatus();
+		}
+		return finish(event, solver, start, metrics, listeners, moves, status);
+	}
+
+	/**
+	 * Reports a board rejected as unsolvable before any search, the same way
+	 * as a solve, so listeners and recordings see every board
+	 * @param solver The solver that would have run
+	 * @param start The unsolvable state
+	 * @param metrics Left at zero apart from the time taken
+	 * @param listeners Told about the board
+	 * @return An UNSOLVABLE result
+	 */
+	static SolveResult unsolvable(SlidingGameSolver solver, SlidingGameState start, SolverMetrics metrics,
+			Iterable<SolverListener> listeners)
+	{
+		SolveEvent event = new SolveEvent();
+		event.begin();
+		metrics.begin();
+		return finish(event, solver, start, metrics, listeners, null, SolveResult.Status.UNSOLVABLE);
+	}
+
+	/**
+	 * Ends the timing, commits the event if enabled and tells the listeners
+	 * @param event The event begun for this solve
+	 * @param solver The solver
+	 * @param start The state solved from
+	 * @param metrics The solve's metrics
+	 * @param listeners Told about the solve
+	 * @param moves The solution, or null
+	 * @param status How the solve ended
+	 * @return The result of the solve
+	 */
+	private static SolveResult finish(SolveEvent event, SlidingGameSolver solver, SlidingGameState start,
+			SolverMetrics metrics, Iterable<SolverListener> listeners, Direction[] moves, SolveResult.Status status)
+	{
+		metrics.end();
+		event.end();
+		if (event.shouldCommit())
+		{
+			event.solver = solver.getClass().getSimpleName();
+			event.size = start.getSize();
+			event.status = status.toString();
+			event.moves = moves == null ? -1 : moves.length;
+			event.expanded = metrics.getExpanded();
+			event.generated = metrics.getGenerated();
+			event.duplicates = metrics.getDuplicates();
+			event.peakFrontier = metrics.getPeakFrontier();
+			event.peakVisited = metrics.getPeakVisited();
+			event.estimatedBytes = metrics.getEstimatedBytes();
+			event.generationNanos = metrics.getPhaseNanos(SolverMetrics.Phase.GENERATION);
+			event.dedupNanos = metrics.getPhaseNanos(SolverMetrics.Phase.DEDUP);
+			event.goalCheckNanos = metrics.getPhaseNanos(SolverMetrics.Phase.GOAL_CHECK);
+			event.commit();
+		}
+		for (SolverListener listener : listeners)
+			listener.solved(start, moves, metrics);
+		return new SolveResult(status, moves == null ? null : new SlidingGameSolution(start, moves), metrics);
+	}
+}
@@ -0,0 +1,18 @@
+package slidinggame;
+
+/**
+ * Receives the metrics of every solve run through a SlidingGamePlayer or
+ * SlidingGameBatchSolver, for logging or monitoring. May be called from
+ * several threads at once.
+ */
+@FunctionalInterface
+public interface SolverListener {
+
+	/**
+	 * Called once a solve has finished
+	 * @param start The state that was solved
+	 * @param moves The solution, or null if none was found
+	 * @param metrics The work the solver did
+	 */
+	void solved(SlidingGameState start, Direction[] moves, SolverMetrics metrics);
+}
@@ -0,0 +1,361 @@
+package slidinggame;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Counters filled in by a solver during one solve: how many nodes it
+ * generated and expanded, how many generated boards were already known, the
+ * largest frontier and visited set it held, a rough estimate of the bytes
+ * those structures retained, and optionally how the time split between
+ * generating successors, checking for duplicates and checking for the goal.
+ * Counting is a field increment per node; the time split calls
+ * System.nanoTime several times per node and is only recorded when asked for.
+ * When created with SolveOptions, expanding a node also enforces their limits
+ * every CHECK_INTERVAL expansions by throwing SolveAbortedException.
+ * Not thread-safe: each solve gets its own instance.
+ */
+public final class SolverMetrics {
+
+	/** Parts of a search that can be timed separately */
+	public enum Phase {
+		GENERATION, DEDUP, GOAL_CHECK
+	}
+
+	/** Expansions between checks of the SolveOptions limits */
+	private static final int CHECK_INTERVAL = 1024;
+
+	/** True if phases are timed */
+	private final boolean timed;
+
+	/** Limits to enforce, or null for none */
+	private final SolveOptions options;
+
+	/** System.nanoTime value of the deadline, valid if hasDeadline */
+	private long deadlineNanos;
+
+	/** True if options set a deadline */
+	private boolean hasDeadline;
+
+	/** Thread that began the solve, whose interrupt stops it */
+	private Thread solvingThread;
+
+	/** Expanded count at which the limits are checked next */
+	private long nextCheck = Long.MAX_VALUE;
+
+	/** Estimated bytes held per visited state, set by the solver */
+	private int bytesPerState;
+
+	private long generated;
+	private long expanded;
+	private long duplicates;
+	private long peakFrontier;
+	private long peakVisited;
+	private long estimatedBytes;
+	private final long[] phaseNanos = new long[Phase.values().length];
+	private long beganNanos;
+	private long elapsedNanos;
+
+	/**
+	 * Constructor, counts nodes without timing phases
+	 */
+	public SolverMetrics()
+	{
+		this(false);
+	}
+
+	/**
+	 * Constructor
+	 * @param newTimed True to also time generation, dedup and goal checks
+	 */
+	public SolverMetrics(boolean newTimed)
+	{
+		this(newTimed, null);
+	}
+
+	/**
+	 * Constructor for a solve with limits
+	 * @param newTimed True to also time generation, dedup and goal checks
+	 * @param newOptions Limits to enforce while counting, or null for none
+	 */
+	SolverMetrics(boolean newTimed, SolveOptions newOptions)
+	{
+		timed = newTimed;
+		options = newOptions;
+	}
+
+	/**
+	 * Marks the start of the solve
+	 */
+	public void begin()
+	{
+		beganNanos = System.nanoTime();
+		solvingThread = Thread.currentThread();
+		if (options != null)
+		{
+			if (options.getDeadline() != null)
+			{
+				// Convert once so checks only read the monotonic clock; a deadline
+				// over a century away does not fit in nanoseconds and is no limit
+				Duration remaining = Duration.between(Instant.now(), options.getDeadline());
+				hasDeadline = remaining.getSeconds() < 1L << 32;
+				if (hasDeadline)
+					deadlineNanos = beganNanos + remaining.toNanos();
+			}
+			nextCheck = 0;
+		}
+	}
+
+	/**
+	 * Marks the end of the solve
+	 */
+	public void end()
+	{
+		elapsedNanos = System.nanoTime() - beganNanos;
+	}
+
+	/**
+	 * Records one generated successor
+	 */
+	void generated()
+	{
+		generated++;
+	}
+
+	/**
+	 * Records one expanded node
+	 */
+	void expanded()
+	{
+		if (++expanded >= nextCheck)
+			checkLimits();
+	}
+
+	/**
+	 * Records several expanded nodes, for solvers that count per layer
+	 * @param count Number of nodes expanded
+	 */
+	void expanded(long count)
+	{
+		expanded += count;
+		if (expanded >= nextCheck)
+			checkLimits();
+	}
+
+	/**
+	 * Records one generated successor that was already known
+	 */
+	void duplicate()
+	{
+		duplicates++;
+	}
+
+	/**
+	 * Records the current frontier size, keeping the peak
+	 * @param size Nodes waiting to be expanded
+	 */
+	void frontier(long size)
+	{
+		if (size > peakFrontier)
+			peakFrontier = size;
+	}
+
+	/**
+	 * Records the current visited set size, keeping the peak
+	 * @param size Nodes stored
+	 */
+	void visited(long size)
+	{
+		if (size > peakVisited)
+			peakVisited = size;
+	}
+
+	/**
+	 * Sets the estimated bytes each visited state holds, so the memory budget
+	 * can be checked from the visited count while the search runs
+	 * @param bytes Bytes per state across the search's tables
+	 */
+	void stateBytes(int bytes)
+	{
+		bytesPerState = bytes;
+	}
+
+	/**
+	 * Records an estimate of the bytes held by the search, keeping the peak
+	 * @param bytes Bytes retained by the search's own structures
+	 */
+	void retained(long bytes)
+	{
+		if (bytes > estimatedBytes)
+			estimatedBytes = bytes;
+	}
+
+	/**
+	 * Stops the solve before it makes room for more states, if holding them
+	 * would pass the memory budget
+	 * @param states Number of states the search will hold once the room is made
+	 */
+	void reserve(long states)
+	{
+		if (options != null && options.getMaxBytes() > 0 && states * bytesPerState > options.getMaxBytes())
+			throw new SolveAbortedException(SolveResult.Status.BUDGET_EXHAUSTED);
+	}
+
+	/**
+	 * Checks for cancellation, an interrupt of the solving thread or a passed
+	 * deadline without stopping the solve. Safe to call from worker threads
+	 * while the solving thread waits for them.
+	 * @return True if the solve should stop
+	 */
+	boolean stopRequested()
+	{
+		if (options == null)
+			return false;
+		return options.isCancelled() || solvingThread != null && solvingThread.isInterrupted()
+				|| hasDeadline && System.nanoTime() - deadlineNanos > 0;
+	}
+
+	/**
+	 * Enforces the limits right away, for solvers whose workers stopped early
+	 */
+	void checkNow()
+	{
+		if (options != null)
+			checkLimits();
+	}
+
+	/**
+	 * Stops the solve if a limit has been reached
+	 */
+	private void checkLimits()
+	{
+		nextCheck = expanded + CHECK_INTERVAL;
+		if (options.isCancelled() || Thread.currentThread().isInterrupted())
+			throw new SolveAbortedException(SolveResult.Status.CANCELLED);
+		if (hasDeadline && System.nanoTime() - deadlineNanos > 0)
+			throw new SolveAbortedException(SolveResult.Status.TIMED_OUT);
+		if (options.getMaxNodes() > 0 && expanded > options.getMaxNodes())
+			throw new SolveAbortedException(SolveResult.Status.BUDGET_EXHAUSTED);
+		if (options.getMaxBytes() > 0 && getEstimatedBytes() > options.getMaxBytes())
+			throw new SolveAbortedException(SolveResult.Status.BUDGET_EXHAUSTED);
+	}
+
+	/**
+	 * Reads the clock when phases are timed
+	 * @return System.nanoTime, or 0 when not timing
+	 */
+	long clock()
+	{
+		return timed ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Charges the time since a clock reading to a phase
+	 * @param phase The phase that just ran
+	 * @param since Value returned by clock or lap when the phase started
+	 * @return The clock now, to start timing the next phase
+	 */
+	long lap(Phase phase, long since)
+	{
+		if (!timed)
+			return 0;
+		long now = System.nanoTime();
+		phaseNanos[phase.ordinal()] += now - since;
+		return now;
+	}
+
+	/**
+	 * Getter for generated nodes
+	 * @return Number of successors generated
+	 */
+	public long getGenerated()
+	{
+		return generated;
+	}
+
+	/**
+	 * Getter for expanded nodes
+	 * @return Number of nodes whose successors were generated
+	 */
+	public long getExpanded()
+	{
+		return expanded;
+	}
+
+	/**
+	 * Getter for duplicates
+	 * @return Number of generated successors dropped because they were already known
+	 */
+	public long getDuplicates()
+	{
+		return duplicates;
+	}
+
+	/**
+	 * Getter for the peak frontier
+	 * @return Largest number of nodes waiting to be expanded at once
+	 */
+	public long getPeakFrontier()
+	{
+		return peakFrontier;
+	}
+
+	/**
+	 * Getter for the peak visited set
+	 * @return Largest number of nodes stored at once
+	 */
+	public long getPeakVisited()
+	{
+		return peakVisited;
+	}
+
+	/**
+	 * Getter for the retained bytes
+	 * @return Rough peak size of the search's own structures, in bytes
+	 */
+	public long getEstimatedBytes()
+	{
+		return Math.max(estimatedBytes, peakVisited * bytesPerState);
+	}
+
+	/**
+	 * Getter for the time spent in a phase
+	 * @param phase The phase
+	 * @return Nanoseconds spent, 0 if phases were not timed
+	 */
+	public long getPhaseNanos(Phase phase)
+	{
+		return phaseNanos[phase.ordinal()];
+	}
+
+	/**
+	 * Getter for the solve time
+	 * @return Nanoseconds between begin and end
+	 */
+	public long getElapsedNanos()
+	{
+		return elapsedNanos;
+	}
+
+	/**
+	 * Throughput of the solve
+	 * @return Expanded nodes per second, 0 if no time was measured
+	 */
+	public double getNodesPerSecond()
+	{
+		return elapsedNanos == 0 ? 0 : expanded * 1e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString()
+	{
+		String s = "expanded=" + expanded + " generated=" + generated + " duplicates=" + duplicates
+				+ " peakFrontier=" + peakFrontier + " peakVisited=" + peakVisited + " bytes~" + getEstimatedBytes()
+				+ " ms=" + elapsedNanos / 1_000_000 + " nodes/s=" + Math.round(getNodesPerSecond());
+		if (timed)
+			s += " generationMs=" + phaseNanos[Phase.GENERATION.ordinal()] / 1_000_000 + " dedupMs="
+					+ phaseNanos[Phase.DEDUP.ordinal()] / 1_000_000 + " goalCheckMs="
+					+ phaseNanos[Phase.GOAL_CHECK.ordinal()] / 1_000_000;
+		return s;
+	}
+}
@@ -0,0 +1,29 @@
+package slidinggame;
+
+/**
+ * Visited-state storage for breadth-first solvers. States get dense indexes
+ * in insertion order, so a solver can use the table as its queue and keep
+ * per-state data in parallel arrays.
+ */
+interface StateTable {
+
+	/**
+	 * Adds a state if it has not been seen
+	 * @param state The state to add
+	 * @return The new index, or a negative value if the state was already present
+	 */
+	int insert(SlidingGameState state);
+
+	/**
+	 * Copies a stored board into an existing state
+	 * @param index Index returned by insert
+	 * @param target State to overwrite, must have the same size
+	 */
+	void load(int index, SlidingGameState target);
+
+	/**
+	 * Getter for the number of stored states
+	 * @return The number of states in the table
+	 */
+	int size();
+}
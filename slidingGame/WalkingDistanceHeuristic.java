@@ -0,0 +1,85 @@
+package slidinggame;
+
+/**
+ * Walking distance. Tiles are only counted by the row they are in and the row
+ * they belong in, and the table gives the fewest vertical moves that bring
+ * every tile into its goal row, tiles in the same row being free to pass each
+ * other. The same is done for columns with horizontal moves. Unlike
+ * Manhattan distance this sees that tiles must take turns through the empty
+ * space, so it is much closer to the true distance on 4x4 boards, and it
+ * never overestimates because every move is either vertical or horizontal.
+ * The estimate is the larger of walking distance and Manhattan distance plus
+ * linear conflicts, which the state already tracks.
+ *
+ * Depth-first searches should use track, which follows the row and column
+ * configurations through each move with one table step instead of
+ * rescanning the board. Boards up to 4x4 only.
+ */
+public class WalkingDistanceHeuristic implements SlidingGameHeuristic {
+
+	@Override
+	public int estimate(SlidingGameState state)
+	{
+		WalkingDistanceTable table = WalkingDistanceTable.forSize(state.getSize());
+		int walking = table.distance(table.rowIndex(state)) + table.distance(table.columnIndex(state));
+		return Math.max(walking, state.getManhattanDistance() + state.getLinearConflicts());
+	}
+
+	@Override
+	public SlidingGameHeuristic track(SlidingGameState board)
+	{
+		return new Tracker(board);
+	}
+
+	/**
+	 * Walking distance of one board, kept up to date as it slides
+	 */
+	private static class Tracker implements SlidingGameHeuristic {
+		private final WalkingDistanceTable table;
+		private final int size;
+		private int rowIndex;
+		private int columnIndex;
+
+		Tracker(SlidingGameState board)
+		{
+			size = board.getSize();
+			table = WalkingDistanceTable.forSize(size);
+			rowIndex = table.rowIndex(board);
+			columnIndex = table.columnIndex(board);
+		}
+
+		@Override
+		public int estimate(SlidingGameState state)
+		{
+			int walking = table.distance(rowIndex) + table.distance(columnIndex);
+			return Math.max(walking, state.getManhattanDistance() + state.getLinearConflicts());
+		}
+
+		@Override
+		public void slid(SlidingGameState board, Direction move)
+		{
+			follow(board, move);
+		}
+
+		@Override
+		public void unslid(SlidingGameState board, Direction move)
+		{
+			follow(board, move.opposite());
+		}
+
+		/**
+		 * Steps the configuration of the move's axis
+		 * @param board The board, after the empty space moved
+		 * @param move The direction the empty space moved
+		 */
+		private void follow(SlidingGameState board, Direction move)
+		{
+			// The tile that moved now sits where the empty space was
+			int tile = board.board[board.getEmptyRow() - move.getRowOffset()][board.getEmptyColumn() - move.getColOffset()];
+			if (move.getRowOffset() != 0)
+				rowIndex = table.next(rowIndex, move == Direction.UP, (tile - 1) / size);
+			else
+				columnIndex = table.next(columnIndex, move == Direction.LEFT, (tile - 1) % size);
+		}
+	}
+}
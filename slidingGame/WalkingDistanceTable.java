@@ -0,0 +1,199 @@
+package slidinggame;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Walking distance table for one board size. A configuration records, for
+ * every row, how many of its tiles belong in each goal row, plus which row
+ * holds the empty space. A vertical move takes one tile from a row next to
+ * the empty space into the empty space's row, and the table holds the fewest
+ * such moves from every configuration to the goal, found by a breadth-first
+ * search. Columns are the same problem turned on its side, so one table
+ * serves both. The 4x4 table has 24,964 configurations.
+ */
+class WalkingDistanceTable {
+
+	/** Largest board a table is built for */
+	static final int MAX_SIZE = 4;
+
+	/** Bits per count in a packed configuration */
+	private static final int COUNT_BITS = 3;
+
+	/** Tables already built, by board size */
+	private static final ConcurrentHashMap<Integer, WalkingDistanceTable> TABLES = new ConcurrentHashMap<>();
+
+	/** Dimension of the board */
+	private final int size;
+
+	/** Fewest moves to the goal, by configuration index */
+	private final byte[] distance;
+
+	/**
+	 * Next configuration, at index * 2 * size + step * size + goal, where step
+	 * is 0 when the empty space moves toward row 0 and 1 otherwise, and goal
+	 * is the goal row of the moving tile; -1 where no such tile exists
+	 */
+	private final int[] next;
+
+	/** Configuration index by packed configuration */
+	private final HashMap<Long, Integer> indexes;
+
+	/**
+	 * Constructor, builds the table
+	 * @param newSize Dimension of the board
+	 */
+	private WalkingDistanceTable(int newSize)
+	{
+		size = newSize;
+		indexes = new HashMap<>();
+		long[] keys = new long[1024];
+		byte[] depths = new byte[1024];
+		int[] links = new int[1024 * 2 * size];
+
+		int[][] counts = new int[size][size];
+		for (int row = 0; row < size; row++)
+			counts[row][row] = row == size - 1 ? size - 1 : size;
+		keys[0] = encode(counts, size - 1);
+		indexes.put(keys[0], 0);
+		int count = 1;
+		for (int head = 0; head < count; head++)
+		{
+			int blank = decode(keys[head], counts);
+			for (int step = 0; step < 2; step++)
+			{
+				int from = blank + (step == 0 ? -1 : 1);
+				for (int goal = 0; goal < size; goal++)
+				{
+					int link = (head * 2 + step) * size + goal;
+					if (from < 0 || from >= size || counts[from][goal] == 0)
+					{
+						links[link] = -1;
+						continue;
+					}
+					counts[from][goal]--;
+					counts[blank][goal]++;
+					long key = encode(counts, from);
+					counts[from][goal]++;
+					counts[blank][goal]--;
+					Integer index = indexes.get(key);
+					if (index == null)
+					{
+						if (count == keys.length)
+						{
+							keys = Arrays.copyOf(keys, count * 2);
+							depths = Arrays.copyOf(depths, count * 2);
+							links = Arrays.copyOf(links, count * 2 * 2 * size);
+						}
+						index = count++;
+						keys[index] = key;
+						depths[index] = (byte) (depths[head] + 1);
+						indexes.put(key, index);
+					}
+					links[link] = index;
+				}
+			}
+		}
+		distance = Arrays.copyOf(depths, count);
+		next = Arrays.copyOf(links, count * 2 * size);
+	}
+
+	/**
+	 * Gets the table for a board size, building it the first time
+	 * @param size Dimension of the board, at most MAX_SIZE
+	 * @return The table
+	 */
+	static WalkingDistanceTable forSize(int size)
+	{
+		if (size > MAX_SIZE)
+			throw new IllegalArgumentException("Walking distance tables are only built for boards up to "
+					+ MAX_SIZE + "x" + MAX_SIZE);
+		return TABLES.computeIfAbsent(size, WalkingDistanceTable::new);
+	}
+
+	/**
+	 * Finds the configuration of a board's rows
+	 * @param state The board
+	 * @return Index of the row configuration
+	 */
+	int rowIndex(SlidingGameState state)
+	{
+		int[][] counts = new int[size][size];
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+				if (state.board[i][j] != 0)
+					counts[i][(state.board[i][j] - 1) / size]++;
+		return indexes.get(encode(counts, state.getEmptyRow()));
+	}
+
+	/**
+	 * Finds the configuration of a board's columns
+	 * @param state The board
+	 * @return Index of the column configuration
+	 */
+	int columnIndex(SlidingGameState state)
+	{
+		int[][] counts = new int[size][size];
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+				if (state.board[i][j] != 0)
+					counts[j][(state.board[i][j] - 1) % size]++;
+		return indexes.get(encode(counts, state.getEmptyColumn()));
+	}
+
+	/**
+	 * Getter for the walking distance of a configuration
+	 * @param index Index of the configuration
+	 * @return Fewest moves along that axis to the goal
+	 */
+	int distance(int index)
+	{
+		return distance[index];
+	}
+
+	/**
+	 * Follows one move of the empty space along the table's axis
+	 * @param index Index of the configuration before the move
+	 * @param towardZero True if the empty space moves to a lower row (or column)
+	 * @param goal Goal row (or column) of the tile that moves
+	 * @return Index of the configuration after the move
+	 */
+	int next(int index, boolean towardZero, int goal)
+	{
+		return next[(index * 2 + (towardZero ? 0 : 1)) * size + goal];
+	}
+
+	/**
+	 * Packs a configuration into a long
+	 * @param counts Tiles in each row by goal row
+	 * @param blank Row of the empty space
+	 * @return The packed configuration
+	 */
+	private long encode(int[][] counts, int blank)
+	{
+		long key = blank;
+		for (int row = 0; row < size; row++)
+			for (int goal = 0; goal < size; goal++)
+				key = (key << COUNT_BITS) | counts[row][goal];
+		return key;
+	}
+
+	/**
+	 * Unpacks a configuration made by encode
+	 * @param key The packed configuration
+	 * @param counts Filled with the tiles in each row by goal row
+	 * @return Row of the empty space
+	 */
+	private int decode(long key, int[][] counts)
+	{
+		int mask = (1 << COUNT_BITS) - 1;
+		for (int row = size - 1; row >= 0; row--)
+			for (int goal = size - 1; goal >= 0; goal--)
+			{
+				counts[row][goal] = (int) (key & mask);
+				key >>>= COUNT_BITS;
+			}
+		return (int) key;
+	}
+}